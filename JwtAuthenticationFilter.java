@@ -1,10 +1,9 @@
 package com.example.security;
 
-import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -13,10 +12,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Filter that intercepts HTTP requests and validates JWT tokens
@@ -24,6 +19,13 @@ import java.util.Map;
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Request attribute holding the verified bearer as received, for outbound calls to relay.
+     */
+    public static final String RELAY_TOKEN_ATTRIBUTE = "relay.bearerToken";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtTokenValidator tokenValidator;
 
     public JwtAuthenticationFilter(JwtTokenValidator tokenValidator) {
@@ -39,28 +41,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = extractToken(request);
 
             if (token != null) {
-                // Step 2: Validate token locally
-                if (tokenValidator.validateTokenLocally(token)) {
-                    // Step 3: Extract claims and create authentication object
-                    Claims claims = tokenValidator.getUnverifiedClaims(token);
-                    
-                    String username = claims.getSubject();
-                    Collection<GrantedAuthority> authorities = extractAuthorities(claims);
+                // Step 2 & 3: Validate token locally - verified claims, subject and authorities in one decode
+                VerifiedToken verified = tokenValidator.verify(token);
 
-                    // Step 4: Set authentication in SecurityContext
+                if (verified != null) {
+                    // Step 4: Set authentication in SecurityContext, without the raw token as credentials
                     Authentication authentication = new UsernamePasswordAuthenticationToken(
-                            username,
+                            verified.getSubject(),
                             null,
-                            authorities
+                            verified.getAuthorities()
                     );
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    // The verified token is kept for this request only, so outbound calls can relay it as is
+                    request.setAttribute(RELAY_TOKEN_ATTRIBUTE, token);
 
-                    System.out.println("✅ User authenticated: " + username);
+                    log.debug("User authenticated: {}", verified.getSubject());
                 }
             }
 
         } catch (Exception e) {
-            System.out.println("❌ Authentication failed: " + e.getMessage());
+            log.debug("Authentication failed: {}", e.getMessage());
             SecurityContextHolder.clearContext();
         }
 
@@ -80,31 +80,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         return null;
     }
-
-    /**
-     * Extracts user authorities/roles from JWT claims
-     * Assumes roles are stored in a "roles" claim as a list
-     */
-    private Collection<GrantedAuthority> extractAuthorities(Claims claims) {
-        Collection<GrantedAuthority> authorities = new ArrayList<>();
-
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) claims.get("roles");
-
-        if (roles != null) {
-            for (String role : roles) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
-            }
-        }
-
-        // Also check for standard 'scope' claim
-        String scope = claims.get("scope", String.class);
-        if (scope != null) {
-            for (String authority : scope.split(" ")) {
-                authorities.add(new SimpleGrantedAuthority(authority));
-            }
-        }
-
-        return authorities;
-    }
 }
@@ -2,16 +2,30 @@ package com.example.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtTokenValidator {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenValidator.class);
+
+    // Bound on cached role/scope combinations; others are mapped without caching
+    private static final int MAX_CACHED_COMBINATIONS = 1024;
+
     @Value("${jwt.secret:your-secret-key-here}")
     private String jwtSecret;
 
@@ -23,10 +37,25 @@ public class JwtTokenValidator {
 
     private final RestTemplate restTemplate;
 
+    // One immutable authority collection per role/scope combination, shared by every token with it
+    private final Map<List<Object>, Collection<GrantedAuthority>> authoritiesByClaims = new ConcurrentHashMap<>();
+
+    // Built once per key - JwtParser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
     public JwtTokenValidator(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
+    @PostConstruct
+    void initParser() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     // ==================== LOCAL VALIDATION ====================
     /**
      * Validates JWT token locally without calling Keycloak
@@ -37,52 +66,92 @@ public class JwtTokenValidator {
      * 4. Validate Expiry
      */
     public boolean validateTokenLocally(String token) {
+        return verify(token) != null;
+    }
+
+    /**
+     * Validates a token locally and returns its verified claims, subject and authorities
+     * from that one decode, or null if the token is not valid.
+     */
+    public VerifiedToken verify(String token) {
         try {
-            // Step 1 & 2: Decode and verify signature using secret key
-            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            // Step 1 & 2: Decode and verify signature with the pre-built parser
+            Claims claims = parser.parseClaimsJws(token).getBody();
 
             // Step 3: Check claims exist and are valid
             if (claims.getSubject() == null || claims.getSubject().isEmpty()) {
-                System.out.println("❌ Subject claim is missing");
-                return false;
+                log.debug("Subject claim is missing");
+                return null;
             }
 
             // Step 4: Validate expiry
             Date expirationTime = claims.getExpiration();
-            if (expirationTime.before(new Date())) {
-                System.out.println("❌ Token has expired");
-                return false;
+            if (expirationTime == null || expirationTime.before(new Date())) {
+                log.debug("Token has expired");
+                return null;
             }
 
-            System.out.println("✅ Token validated successfully (Local)");
-            System.out.println("   Subject: " + claims.getSubject());
-            System.out.println("   Issued At: " + claims.getIssuedAt());
-            System.out.println("   Expires: " + expirationTime);
-            
-            return true;
+            log.debug("Token validated successfully (Local): subject={}, issuedAt={}, expires={}",
+                    claims.getSubject(), claims.getIssuedAt(), expirationTime);
+
+            return new VerifiedToken(claims, extractAuthorities(claims));
 
         } catch (ExpiredJwtException e) {
-            System.out.println("❌ Token expired: " + e.getMessage());
-            return false;
+            log.debug("Token expired: {}", e.getMessage());
+            return null;
         } catch (UnsupportedJwtException e) {
-            System.out.println("❌ Unsupported JWT: " + e.getMessage());
-            return false;
+            log.debug("Unsupported JWT: {}", e.getMessage());
+            return null;
         } catch (MalformedJwtException e) {
-            System.out.println("❌ Invalid JWT format: " + e.getMessage());
-            return false;
+            log.debug("Invalid JWT format: {}", e.getMessage());
+            return null;
         } catch (SignatureException e) {
-            System.out.println("❌ Invalid signature: " + e.getMessage());
-            return false;
+            log.debug("Invalid signature: {}", e.getMessage());
+            return null;
         } catch (IllegalArgumentException e) {
-            System.out.println("❌ JWT claims string is empty: " + e.getMessage());
-            return false;
+            log.debug("JWT claims string is empty: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Extracts user authorities/roles from JWT claims
+     * Assumes roles are stored in a "roles" claim as a list
+     */
+    private Collection<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get("roles");
+        // Also check for standard 'scope' claim
+        String scope = claims.get("scope", String.class);
+
+        List<Object> key = new ArrayList<>(2);
+        key.add(roles);
+        key.add(scope);
+        Collection<GrantedAuthority> cached = authoritiesByClaims.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (roles instanceof List<?> roleList) {
+            for (Object role : roleList) {
+                if (role != null) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toString().toUpperCase()));
+                }
+            }
+        }
+        if (scope != null) {
+            for (String authority : scope.split(" ")) {
+                if (!authority.isEmpty()) {
+                    authorities.add(new SimpleGrantedAuthority(authority));
+                }
+            }
+        }
+
+        Collection<GrantedAuthority> result = List.copyOf(authorities);
+        if (authoritiesByClaims.size() < MAX_CACHED_COMBINATIONS) {
+            authoritiesByClaims.putIfAbsent(key, result);
         }
+        return result;
     }
 
     // ==================== REMOTE VALIDATION ====================
@@ -109,22 +178,22 @@ public class JwtTokenValidator {
             );
 
             if (response != null && response.isActive()) {
-                System.out.println("✅ Token validated successfully (Remote)");
-                System.out.println("   Username: " + response.getUsername());
-                System.out.println("   Exp: " + response.getExp());
+                log.debug("Token validated successfully (Remote): username={}, exp={}",
+                        response.getUsername(), response.getExp());
                 return true;
             } else {
-                System.out.println("❌ Token is not active or has been revoked");
+                log.debug("Token is not active or has been revoked");
                 return false;
             }
 
         } catch (Exception e) {
-            System.out.println("❌ Remote validation failed: " + e.getMessage());
+            log.warn("Remote validation failed: {}", e.getMessage());
             return false;
         }
     }
 
-    // Get claims from token (without verification - for claims inspection)
+    // Get claims from token (without verification - for claims inspection of unsigned tokens only;
+    // use verify() to get the claims of a signed token)
     public Claims getUnverifiedClaims(String token) {
         return Jwts.parserBuilder()
                 .build()
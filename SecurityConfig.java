@@ -1,5 +1,11 @@
 package com.example.microservice.security;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -7,11 +13,15 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -44,11 +54,26 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        // Local validation using JWKS endpoint
-        return NimbusJwtDecoder
-            .withJwkSetUri(keycloakIssuerUri + "/protocol/openid-connect/certs")
+    public JWKSource<SecurityContext> jwkSource() throws MalformedURLException {
+        // Keys cached for 5 min and refreshed ahead of expiry in the background; a fetch for an
+        // unknown kid at most every 10 s, and no fetch waits longer than 2 s
+        return JWKSourceBuilder.create(new URL(keycloakIssuerUri + "/protocol/openid-connect/certs"))
+            .cache(300_000, 2_000)
+            .refreshAheadCache(true)
+            .rateLimited(10_000)
             .build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder() throws MalformedURLException {
+        // Local validation against the cached JWKS
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource()));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(keycloakIssuerUri));
+        return decoder;
         
         // Alternative: Remote validation
         // return JwtDecoders.fromIssuerLocation(keycloakIssuerUri);
@@ -0,0 +1,33 @@
+package com.example.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Result of a single decode-and-verify pass over a JWT:
+ * the verified claims plus the subject and authorities derived from them.
+ */
+public final class VerifiedToken {
+
+    private final Claims claims;
+    private final Collection<GrantedAuthority> authorities;
+
+    public VerifiedToken(Claims claims, Collection<GrantedAuthority> authorities) {
+        this.claims = claims;
+        this.authorities = authorities;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.jwtvalidation.benchmark;
+
+import com.example.jwtvalidation.config.LocalValidationSecurityConfig;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning verified claims into an Authentication with authorities (LOCAL mode converter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorityMappingBenchmark {
+
+    private JwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setup() {
+        converter = new LocalValidationSecurityConfig().jwtAuthenticationConverter(
+            new AuthorityMapper(), new ValidationMetrics("LOCAL"));
+        jwt = BenchmarkTokens.hs256Decoder().decode(BenchmarkTokens.hs256Token("bench-user"));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
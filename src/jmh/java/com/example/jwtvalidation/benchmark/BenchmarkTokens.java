@@ -0,0 +1,97 @@
+package com.example.jwtvalidation.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keys, decoders and Keycloak-shaped tokens shared by the benchmarks.
+ */
+final class BenchmarkTokens {
+
+    static final String SECRET = "mySecretKeyForJWT2025mustBe32bytes!";
+
+    private static final KeyPair RSA_KEYS = generateRsaKeys();
+
+    private BenchmarkTokens() {
+    }
+
+    static JwtDecoder hs256Decoder() {
+        SecretKey key = new SecretKeySpec(SECRET.getBytes(), "HmacSHA256");
+        return NimbusJwtDecoder.withSecretKey(key).build();
+    }
+
+    static JwtDecoder rs256Decoder() {
+        return NimbusJwtDecoder.withPublicKey((RSAPublicKey) RSA_KEYS.getPublic()).build();
+    }
+
+    static String hs256Token(String subject) {
+        try {
+            return sign(new MACSigner(SECRET.getBytes()), JWSAlgorithm.HS256, subject);
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String rs256Token(String subject) {
+        return sign(new RSASSASigner(RSA_KEYS.getPrivate()), JWSAlgorithm.RS256, subject);
+    }
+
+    /**
+     * A token with the claims Keycloak usually puts in an access token.
+     */
+    private static String sign(JWSSigner signer, JWSAlgorithm algorithm, String subject) {
+        try {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .jwtID(UUID.randomUUID().toString())
+                .claim("sid", UUID.randomUUID().toString())
+                .claim("email", subject + "@example.com")
+                .claim("name", "Benchmark User")
+                .claim("preferred_username", subject)
+                .claim("roles", List.of("USER", "ADMIN"))
+                .claim("realm_access", Map.of("roles", List.of("USER", "ADMIN", "offline_access")))
+                .claim("resource_access", Map.of("my-app", Map.of("roles", List.of("view", "edit"))))
+                .claim("scope", "openid profile email")
+                .issuer("mock-issuer")
+                .audience("mock-audience")
+                .expirationTime(new Date(System.currentTimeMillis() + 3600 * 1000))
+                .issueTime(new Date())
+                .build();
+
+            SignedJWT jwt = new SignedJWT(new JWSHeader(algorithm), claims);
+            jwt.sign(signer);
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to sign benchmark token", e);
+        }
+    }
+
+    private static KeyPair generateRsaKeys() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.jwtvalidation.benchmark;
+
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionCircuitBreaker;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.example.jwtvalidation.revocation.RevocationIndex;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.HybridTokenValidator;
+import com.example.jwtvalidation.service.HybridValidationPolicy;
+import com.example.jwtvalidation.service.TwoLevelTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HYBRID mode: a cache hit versus a miss (decode, principal and authority construction).
+ * Remote validation is disabled, so no introspection is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HybridValidatorBenchmark {
+
+    private RevocationIndex revocationIndex;
+    private HybridTokenValidator validator;
+    private String token;
+
+    @Setup
+    public void setup() {
+        revocationIndex = new RevocationIndex(100_000, 0.001, 3600, 60);
+        ValidationMetrics metrics = new ValidationMetrics("HYBRID");
+        HybridValidationPolicy policy = new HybridValidationPolicy(
+            new AuthorityMapper(),
+            revocationIndex,
+            metrics,
+            new TwoLevelTokenCache(300, 10_000),
+            false, "SYNC", 60, 10, 30, "LOCAL", 30, 10_000);
+        validator = new HybridTokenValidator(
+            BenchmarkTokens.hs256Decoder(),
+            token -> {
+                throw new BadOpaqueTokenException("Introspection is not used in this benchmark");
+            },
+            policy,
+            metrics,
+            IntrospectionCircuitBreaker.disabled(),
+            IntrospectionLimiter.unlimited(),
+            1);
+        token = BenchmarkTokens.hs256Token("bench-user");
+        validator.validateToken(token);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.shutdown();
+        revocationIndex.shutdown();
+    }
+
+    @Benchmark
+    public OAuth2AuthenticatedPrincipal cacheHit() {
+        return validator.validateToken(token);
+    }
+
+    @Benchmark
+    public OAuth2AuthenticatedPrincipal cacheMiss() {
+        validator.invalidateToken(token);
+        return validator.validateToken(token);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.jwtvalidation.benchmark;
+
+import com.example.jwtvalidation.config.RestTemplateConfig;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.CustomOpaqueTokenIntrospector;
+import com.example.jwtvalidation.transport.IntrospectionTransportMetrics;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REMOTE mode: CustomOpaqueTokenIntrospector against an in-process stub introspection endpoint.
+ * Compares a fresh connection per call (SIMPLE) with the production transports of
+ * RestTemplateConfig at their default settings: the pooled keep-alive client (POOLED) and the
+ * JDK HTTP/2 client (HTTP2, which falls back to HTTP/1.1 against this stub).
+ * The result cache is disabled so every call is a round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntrospectionBenchmark {
+
+    private static final byte[] ACTIVE_RESPONSE = (
+        "{\"active\":true,\"sub\":\"bench-user\",\"exp\":" + (System.currentTimeMillis() / 1000 + 3600)
+            + ",\"realm_access\":{\"roles\":[\"user\",\"admin\"]}}").getBytes(StandardCharsets.UTF_8);
+
+    @Param({"SIMPLE", "POOLED", "HTTP2"})
+    public String transport;
+
+    private HttpServer server;
+    private CustomOpaqueTokenIntrospector introspector;
+    private String token;
+
+    @Setup
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/introspect", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, ACTIVE_RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(ACTIVE_RESPONSE);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+
+        RestTemplate restTemplate = "SIMPLE".equals(transport)
+            ? new RestTemplate(new SimpleClientHttpRequestFactory())
+            : new RestTemplateConfig(transport, 50, 2000, 3000, 500, 60, 0, "PLATFORM")
+                .restTemplate(new IntrospectionTransportMetrics());
+        String uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/introspect";
+
+        introspector = new CustomOpaqueTokenIntrospector(
+            restTemplate, new AuthorityMapper(), new ValidationMetrics("REMOTE"), IntrospectionLimiter.unlimited(),
+            uri, "bench-client", "bench-secret", 30, 10_000, false, 30, 10_000);
+        token = BenchmarkTokens.hs256Token("bench-user");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public OAuth2AuthenticatedPrincipal introspect() {
+        return introspector.introspect(token);
+    }
+}
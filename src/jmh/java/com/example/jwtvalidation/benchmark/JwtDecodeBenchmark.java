@@ -0,0 +1,42 @@
+package com.example.jwtvalidation.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LOCAL mode cost: NimbusJwtDecoder signature verification and claim parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private JwtDecoder hs256Decoder;
+    private JwtDecoder rs256Decoder;
+    private String hs256Token;
+    private String rs256Token;
+
+    @Setup
+    public void setup() {
+        hs256Decoder = BenchmarkTokens.hs256Decoder();
+        rs256Decoder = BenchmarkTokens.rs256Decoder();
+        hs256Token = BenchmarkTokens.hs256Token("bench-user");
+        rs256Token = BenchmarkTokens.rs256Token("bench-user");
+    }
+
+    @Benchmark
+    public Jwt decodeHs256() {
+        return hs256Decoder.decode(hs256Token);
+    }
+
+    @Benchmark
+    public Jwt decodeRs256() {
+        return rs256Decoder.decode(rs256Token);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.jwtvalidation.benchmark;
+
+import com.example.jwtvalidation.execution.VirtualThreads;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.CustomOpaqueTokenIntrospector;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency vs. latency against a slow identity provider: a burst of in-flight requests, each
+ * blocking in CustomOpaqueTokenIntrospector on a stub endpoint that answers after idp-delay-ms.
+ *
+ * PLATFORM runs the burst on a fixed pool of 200 threads (Tomcat's default threads.max), so a
+ * burst of N takes about N / 200 round trips. VIRTUAL starts a virtual thread per request, so
+ * the whole burst should finish in about one round trip. The score is the time for a burst,
+ * i.e. the latency of its slowest request.
+ *
+ * VIRTUAL needs a Java 21 runtime. Bursts of 10000 open as many connections on both sides of
+ * the loopback; raise the open-file limit (ulimit -n) accordingly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final byte[] ACTIVE_RESPONSE = (
+        "{\"active\":true,\"sub\":\"bench-user\",\"exp\":" + (System.currentTimeMillis() / 1000 + 3600)
+            + ",\"realm_access\":{\"roles\":[\"user\"]}}").getBytes(StandardCharsets.UTF_8);
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String executionMode;
+
+    @Param({"200", "2000", "10000"})
+    public int inFlight;
+
+    @Param({"50"})
+    public long idpDelayMs;
+
+    private HttpServer server;
+    private ScheduledExecutorService responder;
+    private ExecutorService workers;
+    private CustomOpaqueTokenIntrospector introspector;
+    private final AtomicInteger burst = new AtomicInteger();
+
+    @Setup
+    public void setup() throws IOException {
+        boolean virtual = "VIRTUAL".equals(executionMode);
+        if (virtual && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("VIRTUAL needs Java 21 or later, running on " + Runtime.version());
+        }
+
+        // The stub answers from a scheduler, so its own threads never limit the concurrency
+        responder = Executors.newScheduledThreadPool(2);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), inFlight);
+        server.createContext("/introspect", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            responder.schedule(() -> {
+                try {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, ACTIVE_RESPONSE.length);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.write(ACTIVE_RESPONSE);
+                    }
+                } catch (IOException e) {
+                    exchange.close();
+                }
+            }, idpDelayMs, TimeUnit.MILLISECONDS);
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+
+        HttpClient.Builder client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1);
+        if (virtual) {
+            workers = VirtualThreads.newThreadPerTaskExecutor("bench-vt-");
+            client.executor(VirtualThreads.newThreadPerTaskExecutor("bench-http-"));
+        } else {
+            workers = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(client.build()));
+        String uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/introspect";
+
+        introspector = new CustomOpaqueTokenIntrospector(
+            restTemplate, new AuthorityMapper(), new ValidationMetrics("REMOTE"), IntrospectionLimiter.unlimited(),
+            uri, "bench-client", "bench-secret", 30, 10_000, false, 30, 10_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+        server.stop(0);
+        responder.shutdownNow();
+    }
+
+    /**
+     * One burst of in-flight introspections; distinct tokens, so single-flight does not merge them.
+     */
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        int round = burst.incrementAndGet();
+        List<Future<OAuth2AuthenticatedPrincipal>> pending = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            String token = "opaque-" + round + "-" + i;
+            pending.add(workers.submit(() -> introspector.introspect(token)));
+        }
+        int active = 0;
+        for (Future<OAuth2AuthenticatedPrincipal> result : pending) {
+            active += result.get() != null ? 1 : 0;
+        }
+        return active;
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.jwtvalidation.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the /public, /user and /admin endpoints of a running instance.
+ *
+ * Requests are started at a fixed target rate, independent of response times, by up to
+ * --users concurrent virtual users. Latency is measured from each request's scheduled start, so a
+ * generator falling behind does not hide server stalls (coordinated omission). A request that
+ * finds every virtual user busy waits for one, and the wait counts towards its latency. Requests
+ * still waiting when the run ends are recorded at the time they have waited and reported as unsent.
+ *
+ * Bearer tokens come from a minted corpus (--tokens file, or minted through
+ * /public/mock/bulk-tokens) and are picked with a Zipf distribution (--zipf), so the validation
+ * caches see a realistic mix of hot and cold tokens. The report is labelled with the validation
+ * mode read from /actuator/validation, so runs against LOCAL, REMOTE and HYBRID line up.
+ *
+ * Options (defaults in brackets):
+ *   --base-url [http://localhost:8080/api]  --rate [500] requests/s  --users [64]
+ *   --duration [30] s  --warmup [5] s  --tokens [mint]  --token-count [10000]  --subjects [1000]
+ *   --zipf [1.0]  --mix [user=80,admin=10,public=10]  --timeout-ms [10000]  --seed [42]
+ *   --report-file [none, JSON summary]  --smoke (run the endpoint checks instead)
+ */
+public final class LoadGenerator {
+
+    // Latencies above a minute are recorded as a minute
+    private static final long MAX_TRACKED_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private enum Endpoint {
+        USER("/user/profile"),
+        ADMIN("/admin/dashboard"),
+        PUBLIC("/public/hello");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final class EndpointStats {
+        private final Histogram latency = new ConcurrentHistogram(MAX_TRACKED_MICROS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder unexpectedStatus = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    // Requests handed to the virtual users and not finished yet
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder unsent = new LongAdder();
+
+    /**
+     * A request and the time it was due to be sent, which its latency is measured from.
+     */
+    private final class ScheduledRequest implements Runnable {
+        private final Endpoint endpoint;
+        private final HttpRequest request;
+        private final long scheduledAt;
+        private final boolean measured;
+
+        ScheduledRequest(Endpoint endpoint, HttpRequest request, long scheduledAt, boolean measured) {
+            this.endpoint = endpoint;
+            this.request = request;
+            this.scheduledAt = scheduledAt;
+            this.measured = measured;
+        }
+
+        @Override
+        public void run() {
+            try {
+                send(endpoint, request, scheduledAt, measured);
+            } finally {
+                outstanding.decrementAndGet();
+            }
+        }
+    }
+
+    private LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080/api");
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(parse(args));
+        boolean success = generator.options.containsKey("smoke")
+            ? new SmokeCheck(generator.client, generator.baseUrl).run()
+            : generator.run();
+        System.exit(success ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        int rate = Integer.parseInt(option("rate", "500"));
+        int users = Integer.parseInt(option("users", "64"));
+        int durationSeconds = Integer.parseInt(option("duration", "30"));
+        int warmupSeconds = Integer.parseInt(option("warmup", "5"));
+        double zipfExponent = Double.parseDouble(option("zipf", "1.0"));
+        long timeoutMs = Long.parseLong(option("timeout-ms", "10000"));
+        long seed = Long.parseLong(option("seed", "42"));
+        Map<Endpoint, Integer> mix = parseMix(option("mix", "user=80,admin=10,public=10"));
+
+        String mode = validationMode();
+        TokenCorpus corpus = options.containsKey("tokens")
+            ? TokenCorpus.load(Path.of(options.get("tokens")))
+            : TokenCorpus.mint(client, baseUrl, Integer.parseInt(option("token-count", "10000")),
+                Integer.parseInt(option("subjects", "1000")), seed);
+        if (corpus.getTokens().isEmpty() || (mix.get(Endpoint.ADMIN) > 0 && corpus.getAdminTokens().isEmpty())) {
+            throw new IllegalStateException("Token corpus has no tokens (or no ADMIN tokens for the admin mix)");
+        }
+        ZipfSampler userTokens = new ZipfSampler(corpus.getTokens().size(), zipfExponent);
+        ZipfSampler adminTokens = corpus.getAdminTokens().isEmpty()
+            ? null : new ZipfSampler(corpus.getAdminTokens().size(), zipfExponent);
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        System.out.printf("Mode %s: %d req/s, %d users, %d s (+%d s warm-up), zipf %.2f over %d tokens%n",
+            mode, rate, users, durationSeconds, warmupSeconds, zipfExponent, corpus.getTokens().size());
+
+        // Requests wait in the pool's unbounded queue when every user is busy
+        ExecutorService virtualUsers = Executors.newFixedThreadPool(users, runnable -> {
+            Thread thread = new Thread(runnable, "virtual-user");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SplittableRandom random = new SplittableRandom(seed);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            if (scheduledAt >= end) {
+                break;
+            }
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduledAt >= measureFrom;
+            if (outstanding.getAndIncrement() >= users && measured) {
+                queued.increment();
+            }
+
+            Endpoint endpoint = pick(mix, random.nextInt(totalWeight));
+            String token = switch (endpoint) {
+                case USER -> corpus.getTokens().get(userTokens.sample(random));
+                case ADMIN -> corpus.getAdminTokens().get(adminTokens.sample(random));
+                case PUBLIC -> null;
+            };
+            virtualUsers.execute(new ScheduledRequest(endpoint, request(endpoint, token, timeoutMs), scheduledAt, measured));
+        }
+
+        virtualUsers.shutdown();
+        if (!virtualUsers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            // Still queued: never answered, so recorded at the time they have waited so far
+            for (Runnable pending : virtualUsers.shutdownNow()) {
+                ScheduledRequest request = (ScheduledRequest) pending;
+                if (request.measured) {
+                    unsent.increment();
+                    record(stats.get(request.endpoint), request.scheduledAt);
+                }
+            }
+            virtualUsers.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        Map<String, Object> report = report(mode, rate, users, durationSeconds, zipfExponent);
+        if (options.containsKey("report-file")) {
+            mapper.writeValue(Path.of(options.get("report-file")).toFile(), report);
+        }
+        return unsent.sum() == 0
+            && stats.values().stream().allMatch(s -> s.errors.sum() == 0 && s.unexpectedStatus.sum() == 0);
+    }
+
+    private HttpRequest request(Endpoint endpoint, String token, long timeoutMs) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+            .timeout(Duration.ofMillis(timeoutMs))
+            .GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private void send(Endpoint endpoint, HttpRequest request, long scheduledAt, boolean measured) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (!measured) {
+                return;
+            }
+            record(endpointStats, scheduledAt);
+            if (status == 200) {
+                endpointStats.ok.increment();
+            } else {
+                endpointStats.unexpectedStatus.increment();
+            }
+        } catch (IOException e) {
+            // A timeout is the server stalling too, so it stays in the latency distribution
+            if (measured) {
+                record(endpointStats, scheduledAt);
+                endpointStats.errors.increment();
+            }
+        } catch (InterruptedException e) {
+            // Cut off at the end of the run: counted at the time it has taken so far
+            if (measured) {
+                record(endpointStats, scheduledAt);
+                endpointStats.errors.increment();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void record(EndpointStats endpointStats, long scheduledAt) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+        endpointStats.latency.recordValue(Math.min(Math.max(micros, 0), MAX_TRACKED_MICROS));
+    }
+
+    /**
+     * Prints the per-endpoint table and returns the same data for the JSON report.
+     */
+    private Map<String, Object> report(String mode, int rate, int users, int durationSeconds, double zipf) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-8s %10s %9s %9s %9s %9s %9s %11s %7s%n",
+            "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "unexpected", "errors");
+        Histogram total = new Histogram(MAX_TRACKED_MICROS, 3);
+        long totalUnexpected = 0;
+        long totalErrors = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            Histogram latency = endpointStats.latency.copy();
+            total.add(latency);
+            totalUnexpected += endpointStats.unexpectedStatus.sum();
+            totalErrors += endpointStats.errors.sum();
+            endpoints.put(endpoint.name().toLowerCase(), summary(latency, durationSeconds,
+                endpointStats.unexpectedStatus.sum(), endpointStats.errors.sum()));
+            printRow(endpoint.name().toLowerCase(), latency, durationSeconds,
+                endpointStats.unexpectedStatus.sum(), endpointStats.errors.sum());
+        }
+        printRow("total", total, durationSeconds, totalUnexpected, totalErrors);
+        System.out.printf("queued for a free user: %d, unsent at end: %d%n", queued.sum(), unsent.sum());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("targetRate", rate);
+        report.put("users", users);
+        report.put("durationSeconds", durationSeconds);
+        report.put("zipfExponent", zipf);
+        report.put("queued", queued.sum());
+        report.put("unsent", unsent.sum());
+        report.put("total", summary(total, durationSeconds, totalUnexpected, totalErrors));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static void printRow(String name, Histogram latency, int durationSeconds, long unexpected, long errors) {
+        System.out.printf("%-8s %10d %9.1f %9.2f %9.2f %9.2f %9.2f %11d %7d%n",
+            name, latency.getTotalCount(), (double) latency.getTotalCount() / durationSeconds,
+            millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+            millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()), unexpected, errors);
+    }
+
+    private static Map<String, Object> summary(Histogram latency, int durationSeconds, long unexpected, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getTotalCount());
+        summary.put("throughput", (double) latency.getTotalCount() / durationSeconds);
+        summary.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latency.getMaxValue()));
+        summary.put("unexpectedStatus", unexpected);
+        summary.put("errors", errors);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * The validation mode reported by the instance, or "unknown".
+     */
+    private String validationMode() {
+        try {
+            HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/validation")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                return mapper.readTree(response.body()).path("mode").asText("unknown");
+            }
+        } catch (IOException e) {
+            // Reported as unknown
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+
+    private static Endpoint pick(Map<Endpoint, Integer> mix, int draw) {
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        return Endpoint.PUBLIC;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            weights.put(endpoint, 0);
+        }
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            weights.put(Endpoint.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Parses "--name value" pairs; a flag without a value maps to "true".
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> list = List.of(args);
+        for (int i = 0; i < list.size(); i++) {
+            String arg = list.get(i);
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            boolean hasValue = i + 1 < list.size() && !list.get(i + 1).startsWith("--");
+            options.put(arg.substring(2), hasValue ? list.get(++i) : "true");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.jwtvalidation.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * One request per endpoint with the expected status code - the checks test-api.sh used to run,
+ * except that a wrong status fails the run. Uses the mock token endpoints.
+ */
+final class SmokeCheck {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private record Check(String description, String path, String token, int expectedStatus) {
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    SmokeCheck(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Runs all checks and prints one line per check. Returns true if all passed.
+     */
+    boolean run() throws IOException, InterruptedException {
+        String userToken = mockToken("/public/mock/user-token");
+        String adminToken = mockToken("/public/mock/admin-token");
+
+        List<Check> checks = List.of(
+            new Check("Public hello", "/public/hello", null, 200),
+            new Check("Health check", "/public/health", null, 200),
+            new Check("API info", "/public/info", null, 200),
+            new Check("User profile", "/user/profile", userToken, 200),
+            new Check("Token info", "/user/token-info", userToken, 200),
+            new Check("User hello", "/user/hello", userToken, 200),
+            new Check("Admin dashboard with USER token", "/admin/dashboard", userToken, 403),
+            new Check("Admin dashboard", "/admin/dashboard", adminToken, 200),
+            new Check("Admin info", "/admin/info", adminToken, 200),
+            new Check("User profile without token", "/user/profile", null, 401)
+        );
+
+        int failed = 0;
+        for (Check check : checks) {
+            int status = get(check.path(), check.token());
+            boolean passed = status == check.expectedStatus();
+            if (!passed) {
+                failed++;
+            }
+            System.out.printf("%-4s %-35s GET %-20s expected %d, got %d%n",
+                passed ? "PASS" : "FAIL", check.description(), check.path(), check.expectedStatus(), status);
+        }
+        System.out.printf("%d of %d checks passed%n", checks.size() - failed, checks.size());
+        return failed == 0;
+    }
+
+    private String mockToken(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " failed with HTTP " + response.statusCode()
+                + " (is mock mode enabled?)");
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private int get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
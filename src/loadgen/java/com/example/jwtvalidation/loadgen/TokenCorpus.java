@@ -0,0 +1,87 @@
+package com.example.jwtvalidation.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Bearer tokens to replay, in NDJSON as produced by /public/mock/bulk-tokens
+ * (one {"token": ..., "roles": [...]} object per line).
+ */
+final class TokenCorpus {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<String> adminTokens = new ArrayList<>();
+
+    private TokenCorpus() {
+    }
+
+    static TokenCorpus load(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return parse(lines);
+        }
+    }
+
+    /**
+     * Mints a corpus through the running instance (mock mode only).
+     */
+    static TokenCorpus mint(HttpClient client, String baseUrl, int count, int subjects, long seed)
+            throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(Map.of("count", count, "subjects", subjects, "seed", seed));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/public/mock/bulk-tokens"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            throw new IOException("Minting tokens failed with HTTP " + response.statusCode()
+                + " (is mock mode enabled?)");
+        }
+        try (Stream<String> lines = response.body()) {
+            return parse(lines);
+        }
+    }
+
+    private static TokenCorpus parse(Stream<String> lines) {
+        TokenCorpus corpus = new TokenCorpus();
+        lines.filter(line -> !line.isBlank()).forEach(line -> {
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(line);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed token line: " + e.getMessage(), e);
+            }
+            String token = node.path("token").asText();
+            corpus.tokens.add(token);
+            for (JsonNode role : node.path("roles")) {
+                if ("ADMIN".equals(role.asText())) {
+                    corpus.adminTokens.add(token);
+                    break;
+                }
+            }
+        });
+        return corpus;
+    }
+
+    List<String> getTokens() {
+        return tokens;
+    }
+
+    List<String> getAdminTokens() {
+        return adminTokens;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.jwtvalidation.loadgen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes 0..n-1 with Zipf-distributed popularity: index k is drawn with probability
+ * proportional to 1 / (k + 1)^exponent. An exponent of 0 is uniform; around 1 matches the
+ * few-hot-users, long-tail shape of real traffic, so caches see a realistic hit rate.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf sampler needs at least one element");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int slot = index >= 0 ? index : -index - 1;
+        return Math.min(slot, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.jwtvalidation.authorization;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request authorization from path rules compiled at startup.
+ *
+ * The rules are compiled into a {@link PathRuleTrie}, and each rule's roles into a
+ * {@link RoleBits} mask. A decision is a trie lookup, then for role rules an AND of the rule's
+ * mask with the principal's. Roles without a bit are checked by name. Requests matching no rule
+ * need an authenticated (non-anonymous) principal, like anyRequest().authenticated().
+ *
+ * Plugs into the servlet chain as an {@link AuthorizationManager} and into the reactive chain
+ * through {@link #reactive()}. Both match the decoded path. Permitted paths never resolve the
+ * authentication.
+ */
+public class AuthorizationEngine implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /**
+     * A compiled rule. Mask 0 without unmapped roles means any authenticated principal.
+     */
+    record Rule(String description, boolean permitAll, long mask, Set<String> unmapped) {
+
+        boolean authenticatedOnly() {
+            return mask == 0 && unmapped.isEmpty();
+        }
+    }
+
+    private final RoleBits roleBits;
+    private final PathRuleTrie<Rule> rules;
+    private final Rule anyRequest;
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder nameChecks = new LongAdder();
+
+    private AuthorizationEngine(RoleBits roleBits, PathRuleTrie<Rule> rules, Rule anyRequest) {
+        this.roleBits = roleBits;
+        this.rules = rules;
+        this.anyRequest = anyRequest;
+    }
+
+    public static Builder builder(RoleBits roleBits) {
+        return new Builder(roleBits);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return isGranted(pathWithinApplication(context.getRequest()), authentication) ? GRANTED : DENIED;
+    }
+
+    /**
+     * The same decisions for the WebFlux chain.
+     */
+    public ReactiveAuthorizationManager<AuthorizationContext> reactive() {
+        return (authentication, context) -> {
+            Rule rule = ruleFor(segments(context.getExchange().getRequest().getPath().pathWithinApplication()));
+            if (rule.permitAll()) {
+                granted.increment();
+                return Mono.just(GRANTED);
+            }
+            return authentication
+                .map(auth -> decide(rule, auth) ? GRANTED : DENIED)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    denied.increment();
+                    return DENIED;
+                }));
+        };
+    }
+
+    /**
+     * Whether the principal may access the path (relative to the context path).
+     */
+    public boolean isGranted(String path, Supplier<Authentication> authentication) {
+        Rule rule = ruleFor(path);
+        if (rule.permitAll()) {
+            granted.increment();
+            return true;
+        }
+        return decide(rule, authentication.get());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("rules", rules.size());
+        snapshot.put("roleBits", roleBits.size());
+        snapshot.put("granted", granted.sum());
+        snapshot.put("denied", denied.sum());
+        snapshot.put("nameChecks", nameChecks.sum());
+        return snapshot;
+    }
+
+    private Rule ruleFor(String path) {
+        Rule rule = rules.match(path);
+        return rule != null ? rule : anyRequest;
+    }
+
+    private Rule ruleFor(List<String> segments) {
+        Rule rule = rules.match(segments);
+        return rule != null ? rule : anyRequest;
+    }
+
+    private boolean decide(Rule rule, Authentication authentication) {
+        boolean result = isAuthenticated(authentication) && (rule.authenticatedOnly()
+            || (roleBits.maskOf(authentication.getAuthorities()) & rule.mask()) != 0
+            || hasUnmapped(rule, authentication));
+        (result ? granted : denied).increment();
+        return result;
+    }
+
+    private boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated() && !trustResolver.isAnonymous(authentication);
+    }
+
+    private boolean hasUnmapped(Rule rule, Authentication authentication) {
+        if (rule.unmapped().isEmpty()) {
+            return false;
+        }
+        nameChecks.increment();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (rule.unmapped().contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The decoded segments of a WebFlux path, as its handler mappings match them: the raw path
+     * still carries percent-encoding, so "/%61dmin" would otherwise miss the "/admin/**" rule.
+     */
+    private static List<String> segments(PathContainer path) {
+        List<String> segments = new ArrayList<>();
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        if (path.value().length() > 1 && path.value().endsWith("/")) {
+            segments.add("");
+        }
+        return segments;
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        return pathInfo != null ? request.getServletPath() + pathInfo : request.getServletPath();
+    }
+
+    /**
+     * Rules in priority order, the first matching rule applies.
+     */
+    public static final class Builder {
+
+        private final RoleBits roleBits;
+        private final List<Map.Entry<String, Rule>> rules = new ArrayList<>();
+
+        private Builder(RoleBits roleBits) {
+            this.roleBits = roleBits;
+        }
+
+        public Builder permitAll(String... patterns) {
+            return add(new Rule("permitAll", true, 0L, Set.of()), patterns);
+        }
+
+        public Builder authenticated(String... patterns) {
+            return add(new Rule("authenticated", false, 0L, Set.of()), patterns);
+        }
+
+        public Builder hasRole(String pattern, String role) {
+            return hasAnyRole(pattern, role);
+        }
+
+        public Builder hasAnyRole(String pattern, String... roles) {
+            long mask = 0L;
+            Set<String> unmapped = new HashSet<>();
+            for (String role : roles) {
+                String authority = RoleBits.roleAuthority(role);
+                long bit = roleBits.bitOf(authority);
+                if (bit != 0) {
+                    mask |= bit;
+                } else {
+                    unmapped.add(authority);
+                }
+            }
+            return add(new Rule("hasAnyRole" + List.of(roles), false, mask, Set.copyOf(unmapped)), pattern);
+        }
+
+        public AuthorizationEngine build() {
+            PathRuleTrie<Rule> trie = new PathRuleTrie<>();
+            for (Map.Entry<String, Rule> rule : rules) {
+                trie.add(rule.getKey(), rule.getValue());
+            }
+            return new AuthorizationEngine(roleBits, trie, new Rule("authenticated", false, 0L, Set.of()));
+        }
+
+        private Builder add(Rule rule, String... patterns) {
+            for (String pattern : patterns) {
+                rules.add(Map.entry(pattern, rule));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.jwtvalidation.authorization;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * A granted authority that carries its {@link RoleBits} bit (0 for scopes and unknown roles),
+ * so building a principal's mask reads a field instead of looking up the name.
+ *
+ * Equal to another MaskedAuthority with the same name, like SimpleGrantedAuthority.
+ */
+public final class MaskedAuthority implements GrantedAuthority {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String authority;
+    private final long bit;
+
+    MaskedAuthority(String authority, long bit) {
+        this.authority = authority;
+        this.bit = bit;
+    }
+
+    @Override
+    public String getAuthority() {
+        return authority;
+    }
+
+    public long bit() {
+        return bit;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof MaskedAuthority other && authority.equals(other.authority);
+    }
+
+    @Override
+    public int hashCode() {
+        return authority.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return authority;
+    }
+}
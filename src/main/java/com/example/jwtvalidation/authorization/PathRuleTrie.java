@@ -0,0 +1,155 @@
+package com.example.jwtvalidation.authorization;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path rules compiled into a trie of path segments, so matching a request walks its segments
+ * once instead of testing every pattern in turn.
+ *
+ * Supported patterns: literal segments, '*' for exactly one segment, and a trailing '**' for
+ * any remainder, including none ("/public/**" matches "/public"). When several rules match, the
+ * one added first wins, as with an ordered list of request matchers. Empty segments are
+ * ignored, so "//health" matches "/health", but a path with a trailing slash only matches
+ * '**' rules: like Spring MVC, "/health/" is not "/health".
+ */
+public final class PathRuleTrie<T> {
+
+    private record Entry<T>(int order, T value) {
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private Node<T> anySegment;
+        private Entry<T> exact;
+        private Entry<T> remainder;
+    }
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    /**
+     * Adds a rule. A pattern already added keeps its first rule.
+     *
+     * @throws IllegalArgumentException for partial wildcards or a '**' that is not last
+     */
+    public void add(String pattern, T value) {
+        Entry<T> entry = new Entry<>(size++, value);
+        String[] segments = pattern.split("/");
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (!isLast(segments, i)) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                }
+                if (node.remainder == null) {
+                    node.remainder = entry;
+                }
+                return;
+            }
+            if (segment.equals("*")) {
+                if (node.anySegment == null) {
+                    node.anySegment = new Node<>();
+                }
+                node = node.anySegment;
+            } else if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("Unsupported path pattern segment '" + segment + "': " + pattern);
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node<>());
+            }
+        }
+        if (node.exact == null) {
+            node.exact = entry;
+        }
+    }
+
+    /**
+     * The value of the first-added rule matching the path, or null.
+     */
+    public T match(String path) {
+        Entry<T> best = match(root, path, 0, hasTrailingSlash(path), null);
+        return best != null ? best.value() : null;
+    }
+
+    /**
+     * As {@link #match(String)}, for a path already split into decoded segments. A segment may
+     * then contain '/' (from "%2F") and is still matched as one segment. A trailing slash is
+     * given as a trailing empty segment.
+     */
+    public T match(List<String> segments) {
+        boolean trailingSlash = segments.size() > 1 && segments.get(segments.size() - 1).isEmpty();
+        Entry<T> best = match(root, segments, 0, trailingSlash, null);
+        return best != null ? best.value() : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Entry<T> match(Node<T> node, String path, int from, boolean trailingSlash, Entry<T> best) {
+        best = earlier(best, node.remainder);
+        int start = from;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == path.length()) {
+            return trailingSlash ? best : earlier(best, node.exact);
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        Node<T> literal = node.literals.isEmpty() ? null : node.literals.get(path.substring(start, end));
+        if (literal != null) {
+            best = match(literal, path, end, trailingSlash, best);
+        }
+        if (node.anySegment != null) {
+            best = match(node.anySegment, path, end, trailingSlash, best);
+        }
+        return best;
+    }
+
+    private Entry<T> match(Node<T> node, List<String> segments, int from, boolean trailingSlash, Entry<T> best) {
+        best = earlier(best, node.remainder);
+        int index = from;
+        while (index < segments.size() && segments.get(index).isEmpty()) {
+            index++;
+        }
+        if (index == segments.size()) {
+            return trailingSlash ? best : earlier(best, node.exact);
+        }
+        Node<T> literal = node.literals.isEmpty() ? null : node.literals.get(segments.get(index));
+        if (literal != null) {
+            best = match(literal, segments, index + 1, trailingSlash, best);
+        }
+        if (node.anySegment != null) {
+            best = match(node.anySegment, segments, index + 1, trailingSlash, best);
+        }
+        return best;
+    }
+
+    private static <T> Entry<T> earlier(Entry<T> current, Entry<T> candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.order() < current.order() ? candidate : current;
+    }
+
+    private static boolean hasTrailingSlash(String path) {
+        return path.length() > 1 && path.charAt(path.length() - 1) == '/';
+    }
+
+    private static boolean isLast(String[] segments, int index) {
+        for (int i = index + 1; i < segments.length; i++) {
+            if (!segments[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.jwtvalidation.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PreAuthorize} checks without evaluating SpEL on every call.
+ *
+ * At startup the components under the application package are scanned and each @PreAuthorize
+ * expression of the form hasRole, hasAnyRole, hasAuthority or hasAnyAuthority with literal
+ * arguments is compiled to a {@link RoleBits} mask. A call then checks the principal's mask
+ * against the method's. Any other expression, or one naming a role without a bit, is left to
+ * Spring's {@link PreAuthorizeAuthorizationManager}. Methods not seen by the scan are resolved
+ * on their first call.
+ */
+public class PrecompiledMethodAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /** Mask of a method whose expression is evaluated by the fallback. */
+    private static final long FALLBACK = 0L;
+
+    private static final Pattern EXPRESSION =
+        Pattern.compile("\\s*(hasRole|hasAnyRole|hasAuthority|hasAnyAuthority)\\s*\\((.*)\\)\\s*");
+    private static final Pattern ARGUMENT = Pattern.compile("\\s*'([^']+)'\\s*");
+
+    private final RoleBits roleBits;
+    private final AuthorizationManager<MethodInvocation> fallback = new PreAuthorizeAuthorizationManager();
+    private final Map<Method, Long> masks = new ConcurrentHashMap<>();
+
+    private final LongAdder compiledChecks = new LongAdder();
+    private final LongAdder fallbackChecks = new LongAdder();
+
+    public PrecompiledMethodAuthorizationManager(RoleBits roleBits, String basePackage) {
+        this.roleBits = roleBits;
+        precompile(basePackage);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Long mask = masks.get(method);
+        if (mask == null) {
+            Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : method.getDeclaringClass();
+            mask = masks.computeIfAbsent(method, m -> compile(m, targetClass));
+        }
+        if (mask == FALLBACK) {
+            fallbackChecks.increment();
+            return fallback.check(authentication, invocation);
+        }
+        compiledChecks.increment();
+        Authentication auth = authentication.get();
+        return auth != null && auth.isAuthenticated() && (roleBits.maskOf(auth.getAuthorities()) & mask) != 0
+            ? GRANTED
+            : DENIED;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("methods", masks.size());
+        snapshot.put("precompiled", masks.values().stream().filter(mask -> mask != FALLBACK).count());
+        snapshot.put("compiledChecks", compiledChecks.sum());
+        snapshot.put("fallbackChecks", fallbackChecks.sum());
+        return snapshot;
+    }
+
+    private void precompile(String basePackage) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type, ReflectionUtils.USER_DECLARED_METHODS)) {
+                if (AnnotationUtils.findAnnotation(method, PreAuthorize.class) != null) {
+                    masks.put(method, compile(method, type));
+                }
+            }
+        }
+    }
+
+    /**
+     * The required mask for a method, or FALLBACK. A method-level annotation takes precedence
+     * over the class-level one, as in Spring's manager.
+     */
+    private long compile(Method method, Class<?> targetClass) {
+        PreAuthorize annotation = AnnotationUtils.findAnnotation(method, PreAuthorize.class);
+        if (annotation == null) {
+            annotation = AnnotationUtils.findAnnotation(targetClass, PreAuthorize.class);
+        }
+        return annotation != null ? compile(annotation.value()) : FALLBACK;
+    }
+
+    private long compile(String expression) {
+        Matcher matcher = EXPRESSION.matcher(expression);
+        if (!matcher.matches()) {
+            return FALLBACK;
+        }
+        boolean roles = matcher.group(1).endsWith("Role");
+        String[] arguments = matcher.group(2).split(",", -1);
+        if (!matcher.group(1).startsWith("hasAny") && arguments.length != 1) {
+            return FALLBACK;
+        }
+        long mask = 0L;
+        for (String argument : arguments) {
+            Matcher literal = ARGUMENT.matcher(argument);
+            if (!literal.matches()) {
+                return FALLBACK;
+            }
+            String authority = roles ? RoleBits.roleAuthority(literal.group(1)) : literal.group(1);
+            long bit = roleBits.bitOf(authority);
+            if (bit == 0) {
+                // Unknown role: keep the exact SpEL semantics
+                return FALLBACK;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+}
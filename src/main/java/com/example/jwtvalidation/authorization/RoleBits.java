@@ -0,0 +1,107 @@
+package com.example.jwtvalidation.authorization;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each known role a bit in a long, so a principal's roles collapse into one mask and
+ * a role check is a bitwise AND instead of a scan comparing authority strings.
+ *
+ * The known roles are fixed at startup (app.security.authorization.roles). At most 64 roles get
+ * a bit; any other authority has bit 0, and rules that require it fall back to string checks.
+ */
+public final class RoleBits {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final String DEFAULT_ROLES = "USER,ADMIN";
+
+    private final Map<String, Long> bits;
+    private final List<String> unmapped;
+
+    public RoleBits(Collection<String> roles) {
+        Map<String, Long> assigned = new HashMap<>();
+        List<String> overflow = new ArrayList<>();
+        for (String role : roles) {
+            String authority = roleAuthority(role);
+            if (assigned.containsKey(authority)) {
+                continue;
+            }
+            if (assigned.size() < Long.SIZE) {
+                assigned.put(authority, 1L << assigned.size());
+            } else {
+                overflow.add(authority);
+            }
+        }
+        this.bits = Map.copyOf(assigned);
+        this.unmapped = List.copyOf(overflow);
+    }
+
+    /**
+     * Roles from a comma-separated list such as "USER,ADMIN"; blank entries are ignored.
+     */
+    public static RoleBits of(String roles) {
+        List<String> parsed = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            if (!role.isBlank()) {
+                parsed.add(role.trim());
+            }
+        }
+        return new RoleBits(parsed);
+    }
+
+    public static RoleBits defaults() {
+        return of(DEFAULT_ROLES);
+    }
+
+    /**
+     * "ADMIN" and "ROLE_ADMIN" both name the authority ROLE_ADMIN, as in hasRole().
+     */
+    public static String roleAuthority(String role) {
+        String trimmed = role.trim();
+        return trimmed.startsWith(ROLE_PREFIX) ? trimmed : ROLE_PREFIX + trimmed;
+    }
+
+    /**
+     * The bit of an authority name, 0 if it has none.
+     */
+    public long bitOf(String authority) {
+        Long bit = bits.get(authority);
+        return bit != null ? bit : 0L;
+    }
+
+    /**
+     * OR of the bits of the given authorities. Authorities interned by the AuthorityMapper carry
+     * their bit; others are looked up by name.
+     */
+    public long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            mask |= authority instanceof MaskedAuthority masked ? masked.bit() : bitOf(authority.getAuthority());
+        }
+        return mask;
+    }
+
+    /**
+     * An authority carrying its bit, for interning.
+     */
+    public MaskedAuthority authority(String name) {
+        return new MaskedAuthority(name, bitOf(name));
+    }
+
+    public int size() {
+        return bits.size();
+    }
+
+    /**
+     * Roles beyond the 64th, which have no bit.
+     */
+    public List<String> unmapped() {
+        return unmapped;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.jwtvalidation.cache;
+
+import com.example.jwtvalidation.revocation.AppendedLines;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link SharedVerdictStore} in a directory, for replicas on one host or a shared volume.
+ *
+ * Each verdict is a file named after the token key, replaced atomically on write and expired by
+ * its modification time. Invalidations are appended to an invalidation log that every replica
+ * polls, reading only complete lines added since its last poll (the same scheme as the
+ * revocation feed).
+ *
+ * The log rotates with the verdict TTL: invalidations go to the log of the current TTL-long
+ * generation (invalidations-N.log), replicas follow the current and the previous
+ * generation, and older logs are deleted by the sweep. An invalidation therefore stays readable
+ * for at least one TTL, after which the verdicts it could apply to have expired anyway. Clock
+ * skew between replicas of less than one TTL is tolerated.
+ */
+public class FileVerdictStore implements SharedVerdictStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileVerdictStore.class);
+
+    private static final String INVALIDATION_LOG_PREFIX = "invalidations-";
+    private static final String INVALIDATION_LOG_SUFFIX = ".log";
+    private static final String ALL = "*";
+
+    private final Path directory;
+    private final Path verdictDirectory;
+    private final long ttlMillis;
+    private final long pollIntervalMs;
+    private final List<Consumer<TokenKey>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shared-cache-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Invalidation logs being followed, by generation. Only touched by the poller. */
+    private final NavigableMap<Long, AppendedLines> followed = new TreeMap<>();
+
+    public FileVerdictStore(Path directory, long ttlSeconds, long pollIntervalMs) {
+        this.directory = directory;
+        this.verdictDirectory = directory.resolve("verdicts");
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.pollIntervalMs = pollIntervalMs;
+        try {
+            Files.createDirectories(verdictDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create shared cache directory " + verdictDirectory, e);
+        }
+    }
+
+    /**
+     * Starts following the invalidation logs from their current end, and the expiry sweep.
+     * Earlier invalidations do not matter to a replica that has nothing cached yet.
+     */
+    public void start() {
+        poller.execute(this::skipToEnd);
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::sweep, ttlMillis, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    @Override
+    public String get(TokenKey key) {
+        Path file = verdictDirectory.resolve(key.toHex());
+        try {
+            if (isExpired(file)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.US_ASCII);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Failed to read shared verdict {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(TokenKey key, String verdict) {
+        String name = key.toHex();
+        try {
+            Path temp = Files.createTempFile(verdictDirectory, name, ".tmp");
+            Files.writeString(temp, verdict, StandardCharsets.US_ASCII);
+            Files.move(temp, verdictDirectory.resolve(name),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to write shared verdict {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidate(TokenKey key) {
+        try {
+            Files.deleteIfExists(verdictDirectory.resolve(key.toHex()));
+        } catch (IOException e) {
+            log.warn("Failed to delete shared verdict {}: {}", key, e.getMessage());
+        }
+        appendInvalidation(key.toHex());
+    }
+
+    @Override
+    public void invalidateAll() {
+        try (Stream<Path> files = Files.list(verdictDirectory)) {
+            files.forEach(FileVerdictStore::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Failed to clear shared verdicts: {}", e.getMessage());
+        }
+        appendInvalidation(ALL);
+    }
+
+    @Override
+    public void addInvalidationListener(Consumer<TokenKey> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long size() {
+        try (Stream<Path> files = Files.list(verdictDirectory)) {
+            return files.count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private boolean isExpired(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).toMillis() + ttlMillis <= System.currentTimeMillis();
+    }
+
+    private long generation() {
+        return System.currentTimeMillis() / Math.max(1, ttlMillis);
+    }
+
+    private Path invalidationLog(long generation) {
+        return directory.resolve(INVALIDATION_LOG_PREFIX + generation + INVALIDATION_LOG_SUFFIX);
+    }
+
+    private void appendInvalidation(String line) {
+        try {
+            Files.writeString(invalidationLog(generation()), line + "\n", StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to publish shared cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void skipToEnd() {
+        long current = generation();
+        for (long generation = current - 1; generation <= current; generation++) {
+            AppendedLines lines = new AppendedLines(invalidationLog(generation));
+            try {
+                lines.skipToEnd();
+            } catch (IOException e) {
+                log.warn("Failed to open shared cache invalidations {}: {}", lines.path(), e.getMessage());
+            }
+            followed.put(generation, lines);
+        }
+    }
+
+    /**
+     * Reads the logs of the previous and current generation, then stops following older ones
+     * (after reading what was left in them).
+     */
+    void poll() {
+        long current = generation();
+        for (long generation = current - 1; generation <= current; generation++) {
+            followed.computeIfAbsent(generation, g -> new AppendedLines(invalidationLog(g)));
+        }
+        for (AppendedLines lines : followed.values()) {
+            try {
+                lines.read(line -> notifyListeners(line.trim()));
+            } catch (IOException e) {
+                log.warn("Failed to read shared cache invalidations {}: {}", lines.path(), e.getMessage());
+            }
+        }
+        followed.headMap(current - 1).clear();
+    }
+
+    private void notifyListeners(String line) {
+        TokenKey key;
+        if (ALL.equals(line)) {
+            key = null;
+        } else {
+            try {
+                key = TokenKey.fromHex(line);
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+        }
+        listeners.forEach(listener -> listener.accept(key));
+    }
+
+    /**
+     * Deletes verdict files past their TTL, including temp files left by an interrupted write,
+     * and invalidation logs older than the previous generation.
+     */
+    void sweep() {
+        sweepInvalidationLogs();
+        try (Stream<Path> files = Files.list(verdictDirectory)) {
+            files.forEach(file -> {
+                try {
+                    if (isExpired(file)) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    // Deleted concurrently by another replica
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to sweep shared verdicts: {}", e.getMessage());
+        }
+    }
+
+    private void sweepInvalidationLogs() {
+        long oldest = generation() - 1;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(INVALIDATION_LOG_PREFIX) || !name.endsWith(INVALIDATION_LOG_SUFFIX)) {
+                    return;
+                }
+                try {
+                    long generation = Long.parseLong(name.substring(
+                        INVALIDATION_LOG_PREFIX.length(), name.length() - INVALIDATION_LOG_SUFFIX.length()));
+                    if (generation < oldest) {
+                        deleteQuietly(file);
+                    }
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to sweep shared cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Deleted concurrently by another replica
+        }
+    }
+}
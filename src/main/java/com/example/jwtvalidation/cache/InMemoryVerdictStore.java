@@ -0,0 +1,60 @@
+package com.example.jwtvalidation.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process {@link SharedVerdictStore}.
+ *
+ * Every validator holding the same instance behaves like a replica of one cluster, which makes
+ * it the store for tests and single-node runs; it shares nothing between processes.
+ */
+public class InMemoryVerdictStore implements SharedVerdictStore {
+
+    private final Cache<TokenKey, String> verdicts;
+    private final List<Consumer<TokenKey>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryVerdictStore(long ttlSeconds, long maximumSize) {
+        this.verdicts = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .maximumSize(maximumSize)
+            .build();
+    }
+
+    @Override
+    public String get(TokenKey key) {
+        return verdicts.getIfPresent(key);
+    }
+
+    @Override
+    public void put(TokenKey key, String verdict) {
+        verdicts.put(key, verdict);
+    }
+
+    @Override
+    public void invalidate(TokenKey key) {
+        verdicts.invalidate(key);
+        listeners.forEach(listener -> listener.accept(key));
+    }
+
+    @Override
+    public void invalidateAll() {
+        verdicts.invalidateAll();
+        listeners.forEach(listener -> listener.accept(null));
+    }
+
+    @Override
+    public void addInvalidationListener(Consumer<TokenKey> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long size() {
+        return verdicts.size();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.jwtvalidation.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link SingleFlight}: concurrent subscribers for the same key
+ * share one subscription to the loader.
+ *
+ * The loader is subscribed independently of its callers, so a caller that cancels (a client
+ * that disconnects) does not cancel the call for the others. Nothing is retained once the call
+ * completes.
+ */
+public final class ReactiveSingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The loader's result, or that of the call already in flight for this key.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                return Mono.fromFuture(existing, true);
+            }
+
+            call.whenComplete((value, error) -> inFlight.remove(key, call));
+            try {
+                loader.get().subscribe(call::complete, call::completeExceptionally, () -> call.complete(null));
+            } catch (RuntimeException e) {
+                call.completeExceptionally(e);
+            }
+            return Mono.fromFuture(call, true);
+        });
+    }
+
+    /**
+     * Number of distinct keys currently being loaded.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.jwtvalidation.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded negative cache of rejected tokens.
+ *
+ * A client retrying a revoked or broken token is answered from here without a decode,
+ * a signature check or a call to Keycloak. Entries live for a short TTL of their own, so a
+ * token rejected because of a transient misconfiguration is retried soon after.
+ *
+ * Only definitive rejections belong here - never failures to reach the JWKS or
+ * introspection endpoint.
+ */
+public final class RejectedTokenCache {
+
+    private final Cache<TokenKey, RejectionReason> rejected;
+    private final Map<RejectionReason, LongAdder> hits = new EnumMap<>(RejectionReason.class);
+
+    public RejectedTokenCache(long ttlSeconds, long maximumSize) {
+        this.rejected = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        for (RejectionReason reason : RejectionReason.values()) {
+            hits.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns why the token was rejected, or null if it was not (recently) rejected.
+     */
+    public RejectionReason getIfRejected(TokenKey key) {
+        RejectionReason reason = rejected.getIfPresent(key);
+        if (reason != null) {
+            hits.get(reason).increment();
+        }
+        return reason;
+    }
+
+    public void reject(TokenKey key, RejectionReason reason) {
+        rejected.put(key, reason);
+    }
+
+    public void invalidateAll() {
+        rejected.invalidateAll();
+    }
+
+    public long size() {
+        return rejected.size();
+    }
+
+    public CacheStats stats() {
+        return rejected.stats();
+    }
+
+    /**
+     * Replayed rejections answered from the cache, per reason.
+     */
+    public Map<RejectionReason, Long> hitCounts() {
+        Map<RejectionReason, Long> counts = new EnumMap<>(RejectionReason.class);
+        hits.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+}
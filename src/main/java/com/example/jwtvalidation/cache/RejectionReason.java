@@ -0,0 +1,23 @@
+package com.example.jwtvalidation.cache;
+
+/**
+ * Why a token was rejected. Stored in the {@link RejectedTokenCache} and reported
+ * back when a rejected token is replayed.
+ */
+public enum RejectionReason {
+
+    /** Not a parseable JWT */
+    MALFORMED,
+
+    /** Signature or algorithm did not verify */
+    BAD_SIGNATURE,
+
+    /** Past its 'exp' */
+    EXPIRED,
+
+    /** Verified, but a claim validator rejected it (issuer, audience, nbf, ...) */
+    INVALID_CLAIMS,
+
+    /** Introspection returned active=false (revoked, logged out, unknown) */
+    INACTIVE
+}
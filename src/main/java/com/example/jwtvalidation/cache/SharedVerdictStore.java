@@ -0,0 +1,45 @@
+package com.example.jwtvalidation.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Shared (L2) store of validation verdicts, visible to every replica.
+ *
+ * A verdict is an opaque, compact string; the caller signs it on the way in and verifies it on
+ * the way out, so a store only has to move strings and is not trusted for integrity. Entries
+ * expire after the store's own TTL. An invalidation removes the entry and is delivered to the
+ * invalidation listeners of every replica using the store, including the one that issued it.
+ *
+ * Implementations must be thread-safe and should treat failures of the backing system as
+ * misses: a shared cache that is down makes validation slower, never fail.
+ */
+public interface SharedVerdictStore {
+
+    /**
+     * The verdict for a token, or null if none is stored or it has expired.
+     */
+    String get(TokenKey key);
+
+    void put(TokenKey key, String verdict);
+
+    /**
+     * Removes the verdict on all replicas.
+     */
+    void invalidate(TokenKey key);
+
+    /**
+     * Removes every verdict on all replicas.
+     */
+    void invalidateAll();
+
+    /**
+     * Registers a listener for invalidations from any replica.
+     * The listener receives the invalidated key, or null when everything was invalidated.
+     */
+    void addInvalidationListener(Consumer<TokenKey> listener);
+
+    /**
+     * Approximate number of stored verdicts.
+     */
+    long size();
+}
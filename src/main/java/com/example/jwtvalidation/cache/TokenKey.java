@@ -0,0 +1,112 @@
+package com.example.jwtvalidation.cache;
+
+import com.example.jwtvalidation.execution.ReusableInstances;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-size cache key for bearer tokens.
+ *
+ * Keycloak access tokens are 800-2,000 characters, so using the raw string as a cache key
+ * costs kilobytes per entry and a full string hash/compare per lookup. A TokenKey keeps only
+ * the SHA-256 digest of the token in four primitive longs (32 bytes, regardless of token size).
+ *
+ * Equality compares all 256 bits, so two different tokens never share an entry in practice;
+ * the 32-bit hashCode is only used for bucket selection.
+ *
+ * Digests are reused per platform thread and pooled across virtual threads.
+ */
+public final class TokenKey {
+
+    private static final ReusableInstances<MessageDigest> SHA_256 = new ReusableInstances<>(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final long h0;
+    private final long h1;
+    private final long h2;
+    private final long h3;
+
+    private TokenKey(long h0, long h1, long h2, long h3) {
+        this.h0 = h0;
+        this.h1 = h1;
+        this.h2 = h2;
+        this.h3 = h3;
+    }
+
+    /**
+     * Computes the key for a token.
+     */
+    public static TokenKey of(String token) {
+        byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = SHA_256.apply(digest -> digest.digest(bytes));
+        return new TokenKey(
+            readLong(hash, 0),
+            readLong(hash, 8),
+            readLong(hash, 16),
+            readLong(hash, 24)
+        );
+    }
+
+    /**
+     * Parses the form written by {@link #toHex()}.
+     */
+    public static TokenKey fromHex(String hex) {
+        if (hex == null || hex.length() != 64) {
+            throw new IllegalArgumentException("TokenKey hex must be 64 characters");
+        }
+        return new TokenKey(
+            Long.parseUnsignedLong(hex.substring(0, 16), 16),
+            Long.parseUnsignedLong(hex.substring(16, 32), 16),
+            Long.parseUnsignedLong(hex.substring(32, 48), 16),
+            Long.parseUnsignedLong(hex.substring(48, 64), 16)
+        );
+    }
+
+    /**
+     * The full digest as 64 hex characters, for keys shared outside the process.
+     */
+    public String toHex() {
+        return String.format("%016x%016x%016x%016x", h0, h1, h2, h3);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenKey)) {
+            return false;
+        }
+        TokenKey other = (TokenKey) o;
+        return h0 == other.h0 && h1 == other.h1 && h2 == other.h2 && h3 == other.h3;
+    }
+
+    @Override
+    public int hashCode() {
+        // SHA-256 output is uniformly distributed, any 32 bits make a good hash
+        return (int) (h0 ^ (h0 >>> 32));
+    }
+
+    /**
+     * Short, non-reversible identifier suitable for logs.
+     */
+    @Override
+    public String toString() {
+        return String.format("TokenKey[%016x]", h0);
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.jwtvalidation.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Access tokens for this service's own calls (OAuth2 client credentials), one per
+ * (client, audience).
+ *
+ * A token is fetched once and then refreshed in the background when refresh-fraction of its
+ * lifetime has passed, so in steady state {@link #getToken} is a map lookup and no request
+ * waits on the token endpoint. Only the first call for a (client, audience), or a call after
+ * every refresh attempt failed until expiry, waits for a fetch; concurrent callers share that
+ * fetch. Failed fetches are retried on the refresh scheduler with exponential backoff and full
+ * jitter, and a failed background refresh keeps serving the current token until it expires.
+ *
+ * No lock is held during a call to the token endpoint: a fetched token is published in a short
+ * critical section, so readers and other (client, audience) pairs are never held up by a slow
+ * identity provider.
+ *
+ * Tokens not asked for within idle-timeout-seconds are no longer refreshed and are dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "app.client-credentials.enabled", havingValue = "true")
+public class ClientCredentialsTokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientCredentialsTokenManager.class);
+
+    private final RestTemplate restTemplate;
+    private final String tokenUri;
+    private final String defaultClientId;
+    private final Map<String, String> clientSecrets;
+    private final double refreshFraction;
+    private final long expirySkewSeconds;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long retryMaxMs;
+    private final long idleTimeoutMs;
+    private final Map<TokenKey, ManagedToken> tokens = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder blockingFetches = new LongAdder();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictedIdle = new LongAdder();
+
+    private record TokenKey(String clientId, String audience) {
+    }
+
+    private record AccessToken(String value, Instant issuedAt, Instant expiresAt) {
+    }
+
+    /**
+     * A token and the fetch in progress for it. The lock only guards publishing a token and
+     * starting a fetch, never a call to the token endpoint.
+     */
+    private static final class ManagedToken {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile AccessToken current;
+        volatile long lastUsedMillis = System.currentTimeMillis();
+        // Guarded by lock
+        CompletableFuture<AccessToken> pending;
+    }
+
+    @Autowired
+    public ClientCredentialsTokenManager(
+            @Value("${app.client-credentials.token-uri}") String tokenUri,
+            @Value("${app.client-credentials.client-id}") String clientId,
+            @Value("${app.client-credentials.client-secret}") String clientSecret,
+            @Value("${app.client-credentials.additional-clients:}") String additionalClients,
+            @Value("${app.client-credentials.refresh-fraction:0.75}") double refreshFraction,
+            @Value("${app.client-credentials.expiry-skew-seconds:10}") long expirySkewSeconds,
+            @Value("${app.client-credentials.retry.max-attempts:4}") int maxAttempts,
+            @Value("${app.client-credentials.retry.base-delay-ms:100}") long retryBaseMs,
+            @Value("${app.client-credentials.retry.max-delay-ms:5000}") long retryMaxMs,
+            @Value("${app.client-credentials.idle-timeout-seconds:600}") long idleTimeoutSeconds,
+            @Value("${app.client-credentials.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${app.client-credentials.read-timeout-ms:2000}") int readTimeoutMs) {
+        this(tokenEndpointClient(connectTimeoutMs, readTimeoutMs),
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "client-credentials-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }),
+            tokenUri, clientId, clientSecret, additionalClients, refreshFraction, expirySkewSeconds,
+            maxAttempts, retryBaseMs, retryMaxMs, idleTimeoutSeconds);
+    }
+
+    ClientCredentialsTokenManager(RestTemplate restTemplate, ScheduledExecutorService refresher,
+            String tokenUri, String clientId, String clientSecret, String additionalClients,
+            double refreshFraction, long expirySkewSeconds, int maxAttempts, long retryBaseMs,
+            long retryMaxMs, long idleTimeoutSeconds) {
+        if (refreshFraction <= 0 || refreshFraction >= 1) {
+            throw new IllegalArgumentException("refresh-fraction must be between 0 and 1: " + refreshFraction);
+        }
+        this.restTemplate = restTemplate;
+        this.refresher = refresher;
+        this.tokenUri = tokenUri;
+        this.defaultClientId = clientId;
+        this.clientSecrets = parseClients(additionalClients);
+        this.clientSecrets.put(clientId, clientSecret);
+        this.refreshFraction = refreshFraction;
+        this.expirySkewSeconds = expirySkewSeconds;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMs = retryBaseMs;
+        this.retryMaxMs = retryMaxMs;
+        this.idleTimeoutMs = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+    }
+
+    private static RestTemplate tokenEndpointClient(int connectTimeoutMs, int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * An access token of the default client for the audience.
+     */
+    public String getToken(String audience) {
+        return getToken(defaultClientId, audience);
+    }
+
+    /**
+     * An access token of the client for the audience; fetched on this thread only if none is usable.
+     *
+     * @throws IllegalStateException if no token could be fetched
+     */
+    public String getToken(String clientId, String audience) {
+        TokenKey key = new TokenKey(clientId, audience);
+        ManagedToken managed = tokens.computeIfAbsent(key, k -> new ManagedToken());
+        managed.lastUsedMillis = System.currentTimeMillis();
+        AccessToken token = managed.current;
+        if (isUsable(token)) {
+            hits.increment();
+            return token.value();
+        }
+        blockingFetches.increment();
+        return fetch(key, managed).value();
+    }
+
+    /**
+     * The cached token of the client for the audience, or null if a call would have to fetch one.
+     * Never blocks, for callers on an event loop.
+     */
+    public String peekToken(String clientId, String audience) {
+        ManagedToken managed = tokens.get(new TokenKey(clientId, audience));
+        AccessToken token = managed != null ? managed.current : null;
+        if (!isUsable(token)) {
+            return null;
+        }
+        managed.lastUsedMillis = System.currentTimeMillis();
+        hits.increment();
+        return token.value();
+    }
+
+    public String getDefaultClientId() {
+        return defaultClientId;
+    }
+
+    private boolean isUsable(AccessToken token) {
+        return token != null && Instant.now().isBefore(token.expiresAt().minusSeconds(expirySkewSeconds));
+    }
+
+    /**
+     * Waits for a token: the fetch in progress, or a new one started on this thread. The first
+     * attempt runs here, outside the lock; failed attempts are retried on the refresh scheduler,
+     * so no thread sleeps through the backoff. On success the background refresh is scheduled.
+     */
+    private AccessToken fetch(TokenKey key, ManagedToken managed) {
+        CompletableFuture<AccessToken> pending;
+        boolean started = false;
+        managed.lock.lock();
+        try {
+            AccessToken current = managed.current;
+            if (isUsable(current)) {
+                return current;
+            }
+            if (managed.pending == null) {
+                managed.pending = new CompletableFuture<>();
+                started = true;
+            }
+            pending = managed.pending;
+        } finally {
+            managed.lock.unlock();
+        }
+        if (started) {
+            attempt(key, managed, pending, 1);
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * One attempt of a fetch. A failure schedules the next attempt after a jittered backoff,
+     * or fails the fetch once max-attempts is reached.
+     */
+    private void attempt(TokenKey key, ManagedToken managed, CompletableFuture<AccessToken> pending, int attempt) {
+        AccessToken token;
+        try {
+            token = requestToken(key);
+        } catch (RuntimeException e) {
+            if (attempt < maxAttempts
+                    && schedule(() -> attempt(key, managed, pending, attempt + 1), backoffMillis(attempt))) {
+                retries.increment();
+                return;
+            }
+            managed.lock.lock();
+            try {
+                managed.pending = null;
+            } finally {
+                managed.lock.unlock();
+            }
+            pending.completeExceptionally(new IllegalStateException("No token for client " + key.clientId()
+                + " and audience " + key.audience() + " after " + attempt + " attempts: " + e.getMessage(), e));
+            return;
+        }
+        managed.lock.lock();
+        try {
+            managed.current = token;
+            managed.pending = null;
+        } finally {
+            managed.lock.unlock();
+        }
+        pending.complete(token);
+        scheduleRefresh(key, managed, token);
+    }
+
+    /**
+     * Exponential backoff with full jitter: uniform in [0, min(max, base * 2^(attempt-1))].
+     */
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(retryMaxMs, retryBaseMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * Schedules the refresh at refresh-fraction of the token's lifetime, jittered by up to 5%
+     * of the lifetime so tokens fetched together do not all refresh at once.
+     */
+    private void scheduleRefresh(TokenKey key, ManagedToken managed, AccessToken token) {
+        long lifetimeMs = Duration.between(token.issuedAt(), token.expiresAt()).toMillis();
+        long jitterMs = ThreadLocalRandom.current().nextLong(Math.max(1, lifetimeMs / 20));
+        schedule(() -> refresh(key, managed, token, 1), (long) (lifetimeMs * refreshFraction) - jitterMs);
+    }
+
+    /**
+     * Returns false if the scheduler is shutting down.
+     */
+    private boolean schedule(Runnable task, long delayMs) {
+        try {
+            refresher.schedule(task, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Background refresh. A failure is retried with jittered backoff while the current token is
+     * still valid; a caller only waits once it has expired. The new token is published only if
+     * the refreshed one is still current: a token fetched by a caller in the meantime is newer,
+     * and that fetch scheduled its own refresh.
+     */
+    private void refresh(TokenKey key, ManagedToken managed, AccessToken refreshing, int attempt) {
+        if (System.currentTimeMillis() - managed.lastUsedMillis > idleTimeoutMs) {
+            tokens.remove(key, managed);
+            evictedIdle.increment();
+            return;
+        }
+        if (managed.current != refreshing) {
+            return;
+        }
+        AccessToken token;
+        try {
+            token = requestToken(key);
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            long untilExpiryMs = Duration.between(Instant.now(), refreshing.expiresAt()).toMillis();
+            log.warn("Refreshing the token for client {} and audience {} failed (attempt {}), {} ms of validity left: {}",
+                key.clientId(), key.audience(), attempt, untilExpiryMs, e.getMessage());
+            if (untilExpiryMs > 0) {
+                retries.increment();
+                schedule(() -> refresh(key, managed, refreshing, attempt + 1),
+                    Math.min(backoffMillis(attempt + 1), untilExpiryMs));
+            }
+            return;
+        }
+        boolean published;
+        managed.lock.lock();
+        try {
+            published = managed.current == refreshing;
+            if (published) {
+                managed.current = token;
+            }
+        } finally {
+            managed.lock.unlock();
+        }
+        if (published) {
+            refreshes.increment();
+            scheduleRefresh(key, managed, token);
+        }
+    }
+
+    private AccessToken requestToken(TokenKey key) {
+        String secret = clientSecrets.get(key.clientId());
+        if (secret == null) {
+            throw new IllegalArgumentException("Unknown client: " + key.clientId());
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth(key.clientId(), secret);
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "client_credentials");
+        form.add("audience", key.audience());
+
+        fetches.increment();
+        Instant issuedAt = Instant.now();
+        Map<String, Object> response;
+        try {
+            response = restTemplate.exchange(tokenUri, HttpMethod.POST, new HttpEntity<>(form, headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {}).getBody();
+        } catch (RuntimeException e) {
+            fetchFailures.increment();
+            throw e;
+        }
+        if (response == null || !(response.get("access_token") instanceof String value)) {
+            fetchFailures.increment();
+            throw new IllegalStateException("Token endpoint returned no access_token");
+        }
+        long expiresIn = response.get("expires_in") instanceof Number seconds ? seconds.longValue() : 60;
+        return new AccessToken(value, issuedAt, issuedAt.plusSeconds(expiresIn));
+    }
+
+    private static Map<String, String> parseClients(String clients) {
+        Map<String, String> parsed = new HashMap<>();
+        if (clients == null || clients.isBlank()) {
+            return parsed;
+        }
+        for (String entry : clients.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Client must be clientId=secret: " + entry);
+            }
+            parsed.put(parts[0].trim(), parts[1].trim());
+        }
+        return parsed;
+    }
+
+    /**
+     * Counters and the managed tokens' remaining validity, for logging or an endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("hits", hits.sum());
+        snapshot.put("blockingFetches", blockingFetches.sum());
+        snapshot.put("fetches", fetches.sum());
+        snapshot.put("fetchFailures", fetchFailures.sum());
+        snapshot.put("retries", retries.sum());
+        snapshot.put("refreshes", refreshes.sum());
+        snapshot.put("refreshFailures", refreshFailures.sum());
+        snapshot.put("evictedIdle", evictedIdle.sum());
+
+        Map<String, Object> remaining = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        tokens.forEach((key, managed) -> {
+            AccessToken token = managed.current;
+            remaining.put(key.clientId() + "/" + key.audience(),
+                token != null ? Duration.between(now, token.expiresAt()).getSeconds() : null);
+        });
+        snapshot.put("secondsUntilExpiry", remaining);
+        return snapshot;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.jwtvalidation.client;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * The raw bearer the current servlet request was authenticated with, kept as a request
+ * attribute for {@link ServiceToServiceCalls} to relay. It lives and dies with the request,
+ * so the token is never stored in an Authentication's credentials or the SecurityContext.
+ *
+ * An authentication filter that verifies the bearer itself sets {@link #ATTRIBUTE} on the
+ * request; resource-server chains need not, their authentication already holds the token.
+ */
+public final class RelayToken {
+
+    /**
+     * Request attribute holding the verified bearer as received.
+     */
+    public static final String ATTRIBUTE = "relay.bearerToken";
+
+    private RelayToken() {
+    }
+
+    /**
+     * The relay token of the request bound to the current thread, null outside a request or if
+     * none was set.
+     */
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof String token) {
+            return token;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.jwtvalidation.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Outbound relay for service-to-service calls.
+ *
+ * Each downstream (app.downstream.services, "name=baseUrl,...") gets one RestTemplate and one
+ * WebClient, built on first use and shared by all requests. Both sit on keep-alive connection
+ * pools, so a fan-out from the gateway reuses connections instead of paying a TCP/TLS handshake
+ * per call.
+ *
+ * The caller's bearer is relayed as the string it arrived as: the token already verified for
+ * this request, not re-encoded from its claims. It is taken from the request-scoped
+ * {@link RelayToken}, or from a resource-server authentication, never from an Authentication's
+ * credentials. With token exchange enabled, the caller's token
+ * is exchanged (RFC 8693) for one scoped to the downstream's audience instead. Exchanged tokens
+ * are cached per subject and audience until shortly before they expire.
+ *
+ * A call without a user context (a scheduled job, a message listener) uses this service's own
+ * client-credentials token for the downstream's audience, if a
+ * {@link ClientCredentialsTokenManager} is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "app.downstream.enabled", havingValue = "true")
+public class ServiceToServiceCalls {
+
+    /**
+     * WebClient request attribute holding the caller's Authentication, see {@link #caller(Authentication)}.
+     */
+    public static final String CALLER_ATTRIBUTE = ServiceToServiceCalls.class.getName() + ".caller";
+
+    private static final String TOKEN_EXCHANGE_GRANT = "urn:ietf:params:oauth:grant-type:token-exchange";
+    private static final String ACCESS_TOKEN_TYPE = "urn:ietf:params:oauth:token-type:access_token";
+
+    private final Map<String, String> downstreams;
+    private final Map<String, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ConnectionProvider connectionProvider;
+    private final RestTemplate identityProvider;
+    private final int connectTimeoutMs;
+    private final long readTimeoutMs;
+
+    private final boolean exchangeEnabled;
+    private final String exchangeTokenUri;
+    private final String exchangeClientId;
+    private final String exchangeClientSecret;
+    private final long expirySkewSeconds;
+    private final Cache<ExchangeKey, ExchangedToken> exchangedTokens;
+    private final ClientCredentialsTokenManager serviceTokens;
+
+    /**
+     * Cache key of an exchanged token: who it acts for and where it may be used.
+     */
+    private record ExchangeKey(String subject, String audience) {
+    }
+
+    private record ExchangedToken(String value, Instant expiresAt) {
+        boolean isUsable(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+
+    public ServiceToServiceCalls(
+            @Value("${app.downstream.services:downstream-service=http://downstream-service/api}") String services,
+            @Value("${app.downstream.max-connections-per-service:50}") int maxConnectionsPerService,
+            @Value("${app.downstream.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${app.downstream.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${app.downstream.keep-alive-seconds:60}") long keepAliveSeconds,
+            @Value("${app.downstream.token-exchange.enabled:false}") boolean exchangeEnabled,
+            @Value("${app.downstream.token-exchange.token-uri:}") String exchangeTokenUri,
+            @Value("${app.downstream.token-exchange.client-id:}") String exchangeClientId,
+            @Value("${app.downstream.token-exchange.client-secret:}") String exchangeClientSecret,
+            @Value("${app.downstream.token-exchange.expiry-skew-seconds:30}") long expirySkewSeconds,
+            @Value("${app.downstream.token-exchange.maximum-size:10000}") long exchangeCacheSize,
+            ObjectProvider<ClientCredentialsTokenManager> serviceTokens) {
+        this.downstreams = parseServices(services);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+
+        // Pools are per route, so each downstream gets its own maxConnectionsPerService
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(maxConnectionsPerService)
+            .setMaxConnTotal(maxConnectionsPerService * Math.max(1, downstreams.size() + 1))
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTimeToLive(TimeValue.ofSeconds(keepAliveSeconds))
+                .build())
+            .build();
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+            .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .build();
+        this.connectionProvider = ConnectionProvider.builder("downstream")
+            .maxConnections(maxConnectionsPerService)
+            .maxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+            .build();
+        // Token endpoint client, on the same connection pool as the downstreams
+        this.identityProvider = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        this.exchangeEnabled = exchangeEnabled;
+        this.exchangeTokenUri = exchangeTokenUri;
+        this.exchangeClientId = exchangeClientId;
+        this.exchangeClientSecret = exchangeClientSecret;
+        this.expirySkewSeconds = expirySkewSeconds;
+        this.exchangedTokens = CacheBuilder.newBuilder()
+            .maximumSize(exchangeCacheSize)
+            .recordStats()
+            .build();
+        this.serviceTokens = serviceTokens.getIfAvailable();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        connectionProvider.dispose();
+        httpClient.close();
+    }
+
+    /**
+     * The shared RestTemplate for a downstream, relaying the current request's bearer
+     * ({@link RelayToken}). Paths are relative to the downstream's base URL.
+     */
+    public RestTemplate restTemplate(String downstream) {
+        return restTemplates.computeIfAbsent(downstream, name -> {
+            RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+            restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl(name)));
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                    String token = downstreamToken(name, RelayToken.current(),
+                        SecurityContextHolder.getContext().getAuthentication());
+                    if (token != null) {
+                        request.getHeaders().setBearerAuth(token);
+                    }
+                }
+                return execution.execute(request, body);
+            });
+            return restTemplate;
+        });
+    }
+
+    /**
+     * The shared WebClient for a downstream, relaying the caller's bearer.
+     *
+     * The caller is taken from the {@link #CALLER_ATTRIBUTE} request attribute if set, otherwise
+     * from the SecurityContext of the subscribing thread. Reactive callers, whose thread has no
+     * SecurityContext, pass it with {@code .attributes(ServiceToServiceCalls.caller(auth))}.
+     */
+    public WebClient webClient(String downstream) {
+        return webClients.computeIfAbsent(downstream, name -> {
+            HttpClient client = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+            return WebClient.builder()
+                .baseUrl(baseUrl(name))
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .filter((request, next) -> {
+                    if (request.headers().containsKey(HttpHeaders.AUTHORIZATION)) {
+                        return next.exchange(request);
+                    }
+                    Authentication caller = request.attribute(CALLER_ATTRIBUTE)
+                        .map(Authentication.class::cast)
+                        .orElseGet(() -> SecurityContextHolder.getContext().getAuthentication());
+                    return relayToken(name, caller)
+                        .map(token -> ClientRequest.from(request).headers(headers -> headers.setBearerAuth(token)).build())
+                        .defaultIfEmpty(request)
+                        .flatMap(next::exchange);
+                })
+                .build();
+        });
+    }
+
+    /**
+     * Request attributes naming the caller whose bearer a WebClient call relays.
+     */
+    public static Consumer<Map<String, Object>> caller(Authentication authentication) {
+        return attributes -> attributes.put(CALLER_ATTRIBUTE, authentication);
+    }
+
+    /**
+     * Calls a downstream with the current request's bearer.
+     */
+    public <T> ResponseEntity<T> exchange(String downstream, HttpMethod method, String path,
+                                         Object body, Class<T> responseType) {
+        return restTemplate(downstream).exchange(path, method, new HttpEntity<>(body), responseType);
+    }
+
+    /**
+     * The token to send downstream: the caller's bearer as received (the request's
+     * {@link RelayToken}, else the caller's resource-server token), or with token exchange
+     * enabled an audience-scoped token for the downstream. Without a bearer, this service's
+     * own token if client credentials are configured, otherwise null.
+     */
+    String downstreamToken(String downstream, String relayToken, Authentication caller) {
+        String bearer = relayToken != null ? relayToken : bearer(caller);
+        if (bearer == null) {
+            return serviceTokens != null ? serviceTokens.getToken(downstream) : null;
+        }
+        if (!exchangeEnabled) {
+            return bearer;
+        }
+        if (caller == null) {
+            // No subject to key the cache on
+            return exchangeToken(bearer, downstream).value();
+        }
+        ExchangeKey key = new ExchangeKey(caller.getName(), downstream);
+        ExchangedToken cached = exchangedTokens.getIfPresent(key);
+        if (cached != null && cached.isUsable(Instant.now())) {
+            return cached.value();
+        }
+        if (cached != null) {
+            exchangedTokens.asMap().remove(key, cached);
+        }
+        try {
+            // Concurrent misses for one subject and audience share one exchange
+            return exchangedTokens.get(key, () -> exchangeToken(bearer, downstream)).value();
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * {@link #downstreamToken} without blocking the event loop: only a cache miss that needs
+     * an exchange call runs on the bounded elastic scheduler.
+     */
+    private Mono<String> relayToken(String downstream, Authentication caller) {
+        String bearer = bearer(caller);
+        if (bearer == null) {
+            if (serviceTokens == null) {
+                return Mono.empty();
+            }
+            String serviceToken = serviceTokens.peekToken(serviceTokens.getDefaultClientId(), downstream);
+            return serviceToken != null
+                ? Mono.just(serviceToken)
+                : Mono.fromCallable(() -> serviceTokens.getToken(downstream)).subscribeOn(Schedulers.boundedElastic());
+        }
+        if (!exchangeEnabled) {
+            return Mono.just(bearer);
+        }
+        ExchangedToken cached = exchangedTokens.getIfPresent(new ExchangeKey(caller.getName(), downstream));
+        if (cached != null && cached.isUsable(Instant.now())) {
+            return Mono.just(cached.value());
+        }
+        return Mono.fromCallable(() -> downstreamToken(downstream, bearer, caller))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * The caller's bearer as it was received. Resource-server authentications keep the
+     * verified token, whose value is the original compact string; other authentications
+     * have none to relay.
+     */
+    static String bearer(Authentication authentication) {
+        if (authentication instanceof AbstractOAuth2TokenAuthenticationToken<?> oauth2) {
+            return oauth2.getToken().getTokenValue();
+        }
+        return null;
+    }
+
+    /**
+     * RFC 8693 token exchange at the identity provider, for a token whose audience is the downstream.
+     */
+    private ExchangedToken exchangeToken(String subjectToken, String audience) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth(exchangeClientId, exchangeClientSecret);
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", TOKEN_EXCHANGE_GRANT);
+        form.add("subject_token", subjectToken);
+        form.add("subject_token_type", ACCESS_TOKEN_TYPE);
+        form.add("requested_token_type", ACCESS_TOKEN_TYPE);
+        form.add("audience", audience);
+
+        Map<String, Object> response = identityProvider.exchange(
+            exchangeTokenUri, HttpMethod.POST, new HttpEntity<>(form, headers),
+            new ParameterizedTypeReference<Map<String, Object>>() {}
+        ).getBody();
+        if (response == null || !(response.get("access_token") instanceof String token)) {
+            throw new IllegalStateException("Token exchange for audience " + audience + " returned no access_token");
+        }
+        long expiresIn = response.get("expires_in") instanceof Number seconds ? seconds.longValue() : 60;
+        return new ExchangedToken(token, Instant.now().plusSeconds(Math.max(0, expiresIn - expirySkewSeconds)));
+    }
+
+    private String baseUrl(String downstream) {
+        String baseUrl = downstreams.get(downstream);
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("Unknown downstream service: " + downstream);
+        }
+        return baseUrl;
+    }
+
+    private static Map<String, String> parseServices(String services) {
+        Map<String, String> parsed = new HashMap<>();
+        if (services == null || services.isBlank()) {
+            return parsed;
+        }
+        for (String entry : services.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Downstream service must be name=baseUrl: " + entry);
+            }
+            parsed.put(parts[0].trim(), parts[1].trim());
+        }
+        return parsed;
+    }
+
+    /**
+     * Exchanged-token cache statistics, for logging or an endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("downstreams", downstreams.keySet());
+        PoolStats pool = connectionManager.getTotalStats();
+        snapshot.put("pooledConnections", pool.getLeased() + pool.getAvailable());
+        snapshot.put("exchangedTokens", exchangedTokens.size());
+        snapshot.put("exchangeHitRate", exchangedTokens.stats().hitRate());
+        return snapshot;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.jwtvalidation.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the identity provider's token endpoint (client_credentials grant), so the
+ * {@link ClientCredentialsTokenManager} can be exercised without Keycloak. Point
+ * app.client-credentials.token-uri at http://localhost:8080/api/stub/oauth2/token.
+ *
+ * Tokens are opaque random strings. Latency and a failure rate can be configured to exercise
+ * the manager's retries and background refresh. Only for development and tests (servlet mode;
+ * the simulated latency sleeps on the request thread). Clients authenticate with HTTP Basic,
+ * so AuthorizationConfig permits /stub/** while the stub is enabled.
+ */
+@RestController
+@RequestMapping("/stub/oauth2")
+@ConditionalOnProperty(name = "app.client-credentials.stub.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StubTokenEndpoint {
+
+    private final long expiresInSeconds;
+    private final long latencyMs;
+    private final double failureRate;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public StubTokenEndpoint(
+            @Value("${app.client-credentials.stub.expires-in-seconds:300}") long expiresInSeconds,
+            @Value("${app.client-credentials.stub.latency-ms:0}") long latencyMs,
+            @Value("${app.client-credentials.stub.failure-rate:0}") double failureRate) {
+        this.expiresInSeconds = expiresInSeconds;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Issues a token to any client that authenticates with HTTP Basic.
+     */
+    @PostMapping(value = "/token", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> token(@RequestParam MultiValueMap<String, String> form,
+                                                     @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+                                                     String authorization) throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        String clientId = basicClientId(authorization);
+        if (clientId == null) {
+            return error(HttpStatus.UNAUTHORIZED, "invalid_client");
+        }
+        if (!"client_credentials".equals(form.getFirst("grant_type"))) {
+            return error(HttpStatus.BAD_REQUEST, "unsupported_grant_type");
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            failed.increment();
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "temporarily_unavailable");
+        }
+
+        issued.increment();
+        String audience = form.getFirst("audience");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", "stub-" + clientId + "-" + UUID.randomUUID());
+        response.put("token_type", "Bearer");
+        response.put("expires_in", expiresInSeconds);
+        if (audience != null) {
+            response.put("audience", audience);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Tokens issued and failures injected so far.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("issued", issued.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private static String basicClientId(String authorization) {
+        if (authorization == null || !authorization.startsWith("Basic ")) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(6)), StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon > 0 ? credentials.substring(0, colon) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String error) {
+        return ResponseEntity.status(status).body(Map.of("error", error));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.JwtValidationApplication;
+import com.example.jwtvalidation.authorization.AuthorizationEngine;
+import com.example.jwtvalidation.authorization.PrecompiledMethodAuthorizationManager;
+import com.example.jwtvalidation.authorization.RoleBits;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Path and method authorization, compiled at startup.
+ *
+ * The path rules are declared once here and used by every security chain, servlet and
+ * reactive. Known roles (app.security.authorization.roles) get one bit each; a decision is a
+ * rule lookup and a mask AND. Roles outside the list still work, checked by name.
+ */
+@Configuration
+public class AuthorizationConfig {
+
+    @Bean
+    public static RoleBits roleBits(@Value("${app.security.authorization.roles:USER,ADMIN}") String roles) {
+        return RoleBits.of(roles);
+    }
+
+    /**
+     * Path rules in priority order; anything else needs an authenticated principal. The stub
+     * token endpoint, when enabled, is open: its clients authenticate with HTTP Basic.
+     */
+    @Bean
+    public AuthorizationEngine authorizationEngine(
+            RoleBits roleBits,
+            ValidationMetrics metrics,
+            ObjectProvider<PrecompiledMethodAuthorizationManager> methodAuthorization,
+            @Value("${app.client-credentials.stub.enabled:false}") boolean stubTokenEndpoint) {
+        AuthorizationEngine.Builder rules = AuthorizationEngine.builder(roleBits);
+        if (stubTokenEndpoint) {
+            rules.permitAll("/stub/**");
+        }
+        AuthorizationEngine engine = rules
+            .permitAll("/public/**", "/health", "/actuator/**")
+            .hasRole("/admin/**", "ADMIN")
+            .hasAnyRole("/user/**", "USER", "ADMIN")
+            .build();
+        metrics.registerComponent("authorization", () -> {
+            Map<String, Object> snapshot = new LinkedHashMap<>(engine.snapshot());
+            methodAuthorization.ifAvailable(methods -> snapshot.put("methodSecurity", methods.snapshot()));
+            return snapshot;
+        });
+        return engine;
+    }
+
+    /**
+     * Method security (@PreAuthorize) through precompiled role masks in place of Spring's SpEL
+     * interceptor, for every servlet chain (LOCAL, REMOTE and HYBRID).
+     */
+    @Configuration
+    @EnableMethodSecurity(prePostEnabled = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class MethodAuthorizationConfig {
+
+        @Bean
+        @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+        static PrecompiledMethodAuthorizationManager methodAuthorizationManager(RoleBits roleBits) {
+            return new PrecompiledMethodAuthorizationManager(roleBits, JwtValidationApplication.class.getPackageName());
+        }
+
+        @Bean
+        @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+        static Advisor preAuthorizeAdvisor(PrecompiledMethodAuthorizationManager methodAuthorizationManager) {
+            return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(methodAuthorizationManager);
+        }
+    }
+}
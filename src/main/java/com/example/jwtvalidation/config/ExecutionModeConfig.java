@@ -0,0 +1,42 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.execution.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Execution mode for request handling (app.execution-mode):
+ * - PLATFORM: Tomcat's worker pool, bounded by server.tomcat.threads.max (default)
+ * - VIRTUAL: a new virtual thread per request (Java 21+)
+ *
+ * The security filter chain, the validators and their RestTemplate calls all run on the request
+ * thread. With virtual threads a request blocked on introspection parks and frees its carrier,
+ * so the number of in-flight requests is bounded by server.tomcat.max-connections instead of
+ * the thread count. On an older runtime VIRTUAL fails startup rather than quietly running on
+ * the worker pool with a connection limit sized for virtual threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.execution-mode", havingValue = "VIRTUAL")
+public class ExecutionModeConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    public ExecutionModeConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("app.execution-mode=VIRTUAL needs Java 21 or later, running on "
+                + Runtime.version() + "; set EXECUTION_MODE=PLATFORM");
+        }
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-vt-"));
+    }
+}
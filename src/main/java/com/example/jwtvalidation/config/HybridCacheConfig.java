@@ -0,0 +1,91 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.cache.FileVerdictStore;
+import com.example.jwtvalidation.cache.InMemoryVerdictStore;
+import com.example.jwtvalidation.cache.SharedVerdictStore;
+import com.example.jwtvalidation.crypto.HmacJwsSigner;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.TwoLevelTokenCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Token cache for HYBRID mode: in-process L1 plus the shared L2 selected by
+ * app.security.hybrid.shared-cache.type:
+ * - NONE: L1 only (default)
+ * - MEMORY: in-process store, for tests and single-node runs
+ * - FILE: directory store, shared by replicas on one host or a shared volume
+ *
+ * Another backend (Redis, Hazelcast, ...) plugs in as a {@link SharedVerdictStore} bean.
+ *
+ * An L2 verdict is trusted without decoding the token, so whoever can write the store and sign
+ * with the secret can authenticate any token. There is no default secret: with a shared store,
+ * startup fails unless signing-secret is at least 32 bytes (the same on all replicas), and FILE
+ * needs an explicit directory that only the service can write.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+public class HybridCacheConfig {
+
+    @Value("${app.security.hybrid.cache-expiry-seconds:300}")
+    private long cacheExpiry;
+
+    @Value("${app.security.hybrid.shared-cache.ttl-seconds:120}")
+    private long sharedTtlSeconds;
+
+    @Value("${app.security.hybrid.shared-cache.maximum-size:100000}")
+    private long sharedMaximumSize;
+
+    @Value("${app.security.hybrid.shared-cache.directory:}")
+    private String sharedDirectory;
+
+    @Value("${app.security.hybrid.shared-cache.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.security.hybrid.shared-cache.signing-secret:}")
+    private String signingSecret;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.security.hybrid.shared-cache.type", havingValue = "MEMORY")
+    public SharedVerdictStore inMemoryVerdictStore() {
+        return new InMemoryVerdictStore(sharedTtlSeconds, sharedMaximumSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "app.security.hybrid.shared-cache.type", havingValue = "FILE")
+    public FileVerdictStore fileVerdictStore() {
+        if (sharedDirectory.isBlank()) {
+            throw new IllegalStateException("app.security.hybrid.shared-cache.type=FILE needs "
+                + "app.security.hybrid.shared-cache.directory (SHARED_CACHE_DIR), writable only by this service");
+        }
+        FileVerdictStore store = new FileVerdictStore(Path.of(sharedDirectory), sharedTtlSeconds, pollIntervalMs);
+        store.start();
+        return store;
+    }
+
+    @Bean
+    public TwoLevelTokenCache hybridTokenCache(ObjectProvider<SharedVerdictStore> sharedStore,
+                                              AuthorityMapper authorityMapper,
+                                              ValidationMetrics metrics) {
+        SharedVerdictStore shared = sharedStore.getIfAvailable();
+        if (shared == null) {
+            return new TwoLevelTokenCache(cacheExpiry, 10000);
+        }
+        byte[] secret = signingSecret.getBytes(StandardCharsets.UTF_8);
+        if (signingSecret.isBlank() || secret.length < 32) {
+            throw new IllegalStateException("A shared verdict cache needs "
+                + "app.security.hybrid.shared-cache.signing-secret (SHARED_CACHE_SECRET) of at least 32 bytes");
+        }
+        TwoLevelTokenCache cache = new TwoLevelTokenCache(cacheExpiry, 10000, shared,
+            new HmacJwsSigner(secret), authorityMapper, sharedTtlSeconds);
+        metrics.registerCache("hybrid.shared", cache::sharedStats, cache::sharedSize);
+        return cache;
+    }
+}
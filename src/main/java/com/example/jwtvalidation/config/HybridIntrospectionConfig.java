@@ -0,0 +1,77 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionCircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.introspection.SpringOpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.introspection.SpringReactiveOpaqueTokenIntrospector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Introspection for HYBRID mode: the Spring introspector on the pooled introspection transport
+ * (RestTemplateConfig, or ReactiveTransportConfig in reactive mode), guarded by an
+ * {@link IntrospectionCircuitBreaker}. Near-expiry and fallback checks thus reuse connections,
+ * share the transport's timeouts and concurrency bound, and show up in its metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+public class HybridIntrospectionConfig {
+
+    @Value("${spring.security.oauth2.resourceserver.opaquetoken.introspection-uri}")
+    private String introspectionUri;
+
+    @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-id}")
+    private String clientId;
+
+    @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-secret}")
+    private String clientSecret;
+
+    /**
+     * A client over the transport's request factory, which keeps its bounded-transport
+     * interceptor, with the introspection credentials added.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public OpaqueTokenIntrospector opaqueTokenIntrospector(RestTemplate transport) {
+        RestTemplate restTemplate = new RestTemplate(transport.getRequestFactory());
+        restTemplate.getInterceptors().add(new BasicAuthenticationInterceptor(clientId, clientSecret));
+        return new SpringOpaqueTokenIntrospector(introspectionUri, restTemplate);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveOpaqueTokenIntrospector reactiveOpaqueTokenIntrospector(WebClient introspectionWebClient) {
+        WebClient webClient = introspectionWebClient.mutate()
+            .defaultHeaders(headers -> headers.setBasicAuth(clientId, clientSecret))
+            .build();
+        return new SpringReactiveOpaqueTokenIntrospector(introspectionUri, webClient);
+    }
+
+    @Bean
+    public IntrospectionCircuitBreaker introspectionCircuitBreaker(
+            ValidationMetrics metrics,
+            @Value("${app.security.hybrid.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${app.security.hybrid.circuit-breaker.window-size:100}") int windowSize,
+            @Value("${app.security.hybrid.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${app.security.hybrid.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${app.security.hybrid.circuit-breaker.slow-call-percentile:90}") double slowCallPercentile,
+            @Value("${app.security.hybrid.circuit-breaker.slow-call-threshold-ms:1000}") long slowCallThresholdMs,
+            @Value("${app.security.hybrid.circuit-breaker.open-duration-ms:5000}") long openDurationMs,
+            @Value("${app.security.hybrid.circuit-breaker.max-open-duration-ms:60000}") long maxOpenDurationMs,
+            @Value("${app.security.hybrid.circuit-breaker.probe-concurrency:2}") int probeConcurrency,
+            @Value("${app.security.hybrid.circuit-breaker.probe-successes:5}") int probeSuccesses) {
+        IntrospectionCircuitBreaker breaker = new IntrospectionCircuitBreaker(enabled, windowSize, minimumCalls,
+            failureRateThreshold, slowCallPercentile, slowCallThresholdMs, openDurationMs, maxOpenDurationMs,
+            probeConcurrency, probeSuccesses);
+        metrics.registerComponent("introspectionCircuitBreaker", breaker::snapshot);
+        return breaker;
+    }
+}
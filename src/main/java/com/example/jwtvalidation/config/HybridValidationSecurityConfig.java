@@ -0,0 +1,66 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.authorization.AuthorizationEngine;
+import com.example.jwtvalidation.exception.BearerTokenFailureHandler;
+import com.example.jwtvalidation.service.HybridTokenValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Security configuration for HYBRID validation in servlet mode.
+ *
+ * Requests are validated by the {@link HybridTokenValidator}, plugged in as the introspector
+ * (as ReactiveSecurityConfig does in reactive mode). Its JWT failures are reported the way the
+ * resource server reports introspection failures, and an unavailable identity provider is
+ * answered with 503 and Retry-After.
+ */
+@Configuration
+@EnableWebSecurity
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HybridValidationSecurityConfig {
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AuthorizationEngine authorizationEngine,
+                                           HybridTokenValidator validator,
+                                           ObjectMapper objectMapper) throws Exception {
+        OpaqueTokenIntrospector hybridIntrospector = token -> {
+            try {
+                return validator.validateToken(token);
+            } catch (BadJwtException e) {
+                throw new BadOpaqueTokenException(e.getMessage(), e);
+            } catch (JwtException e) {
+                throw new OAuth2IntrospectionException(e.getMessage(), e);
+            }
+        };
+
+        http
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session ->
+                session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth
+                // Path rules from AuthorizationConfig, compiled at startup
+                .anyRequest().access(authorizationEngine)
+            )
+            .oauth2ResourceServer(oauth2 -> oauth2
+                // 503 + Retry-After while Keycloak is unavailable, instead of a 500
+                .withObjectPostProcessor(new BearerTokenFailureHandler(objectMapper).installer())
+                .opaqueToken(opaque -> opaque.introspector(hybridIntrospector))
+            );
+
+        return http.build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limiter for outbound introspection calls, shared by REMOTE and HYBRID mode.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.security.validation-mode:LOCAL}'.equalsIgnoreCase('LOCAL')")
+public class IntrospectionLimiterConfig {
+
+    @Bean
+    public IntrospectionLimiter introspectionLimiter(
+            ValidationMetrics metrics,
+            @Value("${app.security.introspection.limiter.enabled:true}") boolean enabled,
+            @Value("${app.security.introspection.limiter.rate-per-second:200}") double ratePerSecond,
+            @Value("${app.security.introspection.limiter.burst:50}") int burst,
+            @Value("${app.security.introspection.limiter.max-concurrent:20}") int maxConcurrent,
+            @Value("${app.security.introspection.limiter.policy:QUEUE}") String policy,
+            @Value("${app.security.introspection.limiter.max-wait-ms:100}") long maxWaitMs,
+            @Value("${app.security.introspection.limiter.client-key:REMOTE_ADDRESS}") String clientKey,
+            @Value("${app.security.introspection.limiter.default-client-rate-per-second:0}") double defaultClientRate,
+            @Value("${app.security.introspection.limiter.client-quotas:}") String clientQuotas) {
+        IntrospectionLimiter limiter = new IntrospectionLimiter(enabled, ratePerSecond, burst, maxConcurrent,
+            policy, maxWaitMs, clientKey, defaultClientRate, clientQuotas);
+        metrics.registerComponent("introspectionLimiter", limiter::snapshot);
+        return limiter;
+    }
+}
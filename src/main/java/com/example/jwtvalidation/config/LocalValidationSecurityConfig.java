@@ -1,16 +1,29 @@
 package com.example.jwtvalidation.config;
 
+import com.example.jwtvalidation.authorization.AuthorizationEngine;
+import com.example.jwtvalidation.jwks.JwksKeyStore;
+import com.example.jwtvalidation.metrics.TimedJwtDecoder;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.ExpiryAwareTimestampValidator;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+
 /**
  * Security configuration for LOCAL JWT validation.
  * This validates JWT tokens using the public key from Keycloak's JWKS endpoint.
@@ -23,48 +36,89 @@ import org.springframework.security.web.SecurityFilterChain;
  * Limitations:
  * - Token revocation not immediately reflected
  * - Relies on token expiration for security
+ *
+ * Outside mock mode the signing keys come from a {@link JwksKeyStore}: pre-parsed and indexed
+ * by 'kid', refreshed in the background, so key rotation never blocks a request thread on a
+ * JWKS fetch and the last good keys stay in use while Keycloak is unreachable.
  */
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(prePostEnabled = true)
 @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "LOCAL", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LocalValidationSecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AuthorizationEngine authorizationEngine,
+                                           JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session ->
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/public/**", "/health", "/actuator/**").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
-                .requestMatchers("/user/**").hasAnyRole("USER", "ADMIN")
-                .anyRequest().authenticated()
+                // Path rules from AuthorizationConfig, compiled at startup
+                .anyRequest().access(authorizationEngine)
             )
             .oauth2ResourceServer(oauth2 -> oauth2
                 .jwt(jwt -> jwt
-                    .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                    .jwtAuthenticationConverter(jwtAuthenticationConverter)
                 )
             );
 
         return http.build();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "app.security.mock-enabled", havingValue = "false")
+    public JwksKeyStore jwksKeyStore(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${app.security.jwks.refresh-interval-seconds:300}") long refreshIntervalSeconds,
+            @Value("${app.security.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs,
+            @Value("${app.security.jwks.timeout-ms:2000}") int timeoutMs) throws MalformedURLException {
+        JwksKeyStore keyStore = new JwksKeyStore(
+            new URL(jwkSetUri), refreshIntervalSeconds, minRefreshIntervalMs, timeoutMs);
+        keyStore.start();
+        return keyStore;
+    }
+
+    /**
+     * Decoder verifying signatures against the kid-indexed key store.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.security.mock-enabled", havingValue = "false")
+    public JwtDecoder jwtDecoder(
+            JwksKeyStore jwksKeyStore,
+            ValidationMetrics metrics,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(jwksKeyStore);
+        // Claims are validated by Spring's validators below, as NimbusJwtDecoder does by default
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(ExpiryAwareTimestampValidator.withIssuer(issuerUri));
+        return new TimedJwtDecoder(decoder, metrics);
+    }
+
     /**
      * Converts JWT claims to Spring Security authorities.
      * Extracts roles from the 'roles' claim in the JWT.
+     * Role combinations map to shared, immutable authority collections.
      */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    public JwtAuthenticationConverter jwtAuthenticationConverter(AuthorityMapper authorityMapper,
+                                                                 ValidationMetrics metrics) {
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
 
         // Extract authorities from 'roles' claim instead of default 'scope'
-        authoritiesConverter.setAuthoritiesClaimName("roles");
-        authoritiesConverter.setAuthorityPrefix("ROLE_");
-
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+            long start = metrics.start();
+            try {
+                return authorityMapper.fromRoles(jwt.getClaims().get("roles"));
+            } finally {
+                metrics.record(ValidationMetrics.Stage.AUTHORITY_MAPPING, start);
+            }
+        });
 
         return converter;
     }
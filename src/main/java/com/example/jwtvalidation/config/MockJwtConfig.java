@@ -1,23 +1,46 @@
 package com.example.jwtvalidation.config;
 
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSSigner;
-import com.nimbusds.jose.crypto.MACSigner;
+import com.example.jwtvalidation.crypto.HmacJwsSigner;
+import com.example.jwtvalidation.metrics.TimedJwtDecoder;
+import com.example.jwtvalidation.metrics.TimedReactiveJwtDecoder;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.model.BulkTokenRequest;
+import com.example.jwtvalidation.service.ExpiryAwareTimestampValidator;
+import com.nimbusds.jose.util.JSONObjectUtils;
 import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Mock JWT configuration for testing without real Keycloak.
@@ -30,13 +53,61 @@ public class MockJwtConfig {
     @Value("${app.security.mock-secret}")
     private String secretKey;
 
+    private static final int BULK_CHUNK_SIZE = 1024;
+    private static final int MINT_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private HmacJwsSigner signer;
+
+    /**
+     * Signs bulk corpora, so a large request cannot take over the common ForkJoinPool. When the
+     * queue is full the calling request thread signs its own slice.
+     */
+    private final ExecutorService minter = new ThreadPoolExecutor(
+        MINT_THREADS, MINT_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(MINT_THREADS * 4),
+        runnable -> {
+            Thread thread = new Thread(runnable, "mock-token-minter");
+            thread.setDaemon(true);
+            return thread;
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /**
+     * The signer is built once; generating a token is then a single HMAC.
+     */
+    @PostConstruct
+    void initSigner() {
+        signer = new HmacJwsSigner(secretKey.getBytes());
+    }
+
+    @PreDestroy
+    void shutdownMinter() {
+        minter.shutdownNow();
+    }
+
     /**
      * Creates a JwtDecoder that validates JWT tokens signed with the mock secret.
      */
     @Bean
-    public JwtDecoder jwtDecoder() {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public JwtDecoder jwtDecoder(ValidationMetrics metrics) {
         SecretKey key = new SecretKeySpec(secretKey.getBytes(), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(key).build();
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).build();
+        decoder.setJwtValidator(new ExpiryAwareTimestampValidator());
+        return new TimedJwtDecoder(decoder, metrics);
+    }
+
+    /**
+     * Reactive counterpart of {@link #jwtDecoder}. HMAC verification is CPU-only, so it runs
+     * on the event loop.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveJwtDecoder reactiveJwtDecoder(ValidationMetrics metrics) {
+        SecretKey key = new SecretKeySpec(secretKey.getBytes(), "HmacSHA256");
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(key).build();
+        decoder.setJwtValidator(new ExpiryAwareTimestampValidator());
+        return new TimedReactiveJwtDecoder(decoder, metrics);
     }
 
     /**
@@ -44,31 +115,146 @@ public class MockJwtConfig {
      * This can be called from a controller or test class.
      */
     public String generateMockToken(String userId, String email, String name, List<String> roles) {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+            .subject(userId)
+            .claim("email", email)
+            .claim("name", name)
+            .claim("roles", roles)
+            .issuer("mock-issuer")
+            .audience("mock-audience")
+            .expirationTime(new Date(System.currentTimeMillis() + 3600 * 1000)) // 1 hour
+            .issueTime(new Date())
+            .build();
+
+        return signer.sign(claimsSet);
+    }
+
+    /**
+     * Mints a token corpus and writes it as NDJSON, one
+     * {"token", "sub", "roles", "exp"} object per line, in index order.
+     *
+     * Tokens are signed a chunk at a time on the minter threads, so memory stays bounded.
+     * Each token's shape comes from its own random stream, so the output is the same however
+     * the work is split; only iat/exp/jti depend on the time of the call.
+     *
+     * @return the number of tokens written
+     */
+    public long writeTokens(BulkTokenRequest request, Writer out) throws IOException {
+        request.validate();
+        long now = System.currentTimeMillis();
+        String padding = padding(request.getMaxPaddingBytes());
+        int totalWeight = request.getRoleMixes().stream().mapToInt(BulkTokenRequest.RoleMix::getWeight).sum();
+
+        for (int chunkStart = 0; chunkStart < request.getCount(); chunkStart += BULK_CHUNK_SIZE) {
+            int chunkEnd = Math.min(chunkStart + BULK_CHUNK_SIZE, request.getCount());
+            for (String[] lines : mintChunk(request, chunkStart, chunkEnd, now, padding, totalWeight)) {
+                for (String line : lines) {
+                    out.write(line);
+                    out.write('\n');
+                }
+            }
+            out.flush();
+        }
+        return request.getCount();
+    }
+
+    /**
+     * Writes a token corpus to a file, replacing it.
+     */
+    public long writeTokens(BulkTokenRequest request, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return writeTokens(request, out);
+        }
+    }
+
+    /**
+     * Mints the lines of one chunk, split into a slice per minter thread, in index order.
+     */
+    private List<String[]> mintChunk(BulkTokenRequest request, int chunkStart, int chunkEnd,
+                                     long now, String padding, int totalWeight) throws IOException {
+        int sliceSize = (chunkEnd - chunkStart + MINT_THREADS - 1) / MINT_THREADS;
+        List<Future<String[]>> slices = new ArrayList<>(MINT_THREADS);
+        for (int sliceStart = chunkStart; sliceStart < chunkEnd; sliceStart += sliceSize) {
+            int start = sliceStart;
+            int end = Math.min(sliceStart + sliceSize, chunkEnd);
+            slices.add(minter.submit(() -> {
+                String[] lines = new String[end - start];
+                for (int index = start; index < end; index++) {
+                    lines[index - start] = mintLine(request, index, now, padding, totalWeight);
+                }
+                return lines;
+            }));
+        }
+        List<String[]> minted = new ArrayList<>(slices.size());
         try {
-            JWSSigner signer = new MACSigner(secretKey.getBytes());
-
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                .subject(userId)
-                .claim("email", email)
-                .claim("name", name)
-                .claim("roles", roles)
-                .issuer("mock-issuer")
-                .audience("mock-audience")
-                .expirationTime(new Date(System.currentTimeMillis() + 3600 * 1000)) // 1 hour
-                .issueTime(new Date())
-                .build();
-
-            SignedJWT signedJWT = new SignedJWT(
-                new JWSHeader(JWSAlgorithm.HS256),
-                claimsSet
-            );
-
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
-
-        } catch (JOSEException e) {
-            throw new RuntimeException("Failed to generate mock JWT token", e);
+            for (Future<String[]> slice : slices) {
+                minted.add(slice.get());
+            }
+        } catch (InterruptedException e) {
+            slices.forEach(slice -> slice.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while minting tokens");
+        } catch (ExecutionException e) {
+            slices.forEach(slice -> slice.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Minting tokens failed", e.getCause());
+        }
+        return minted;
+    }
+
+    private String mintLine(BulkTokenRequest request, int index, long now, String padding, int totalWeight) {
+        SplittableRandom random = new SplittableRandom(request.getSeed() * 31 + index);
+        String subject = String.format("user-%06d", random.nextInt(request.getSubjects()));
+        List<String> roles = pickRoles(request.getRoleMixes(), random.nextInt(totalWeight));
+        long expirySeconds = request.getMinExpirySeconds()
+            + random.nextLong(request.getMaxExpirySeconds() - request.getMinExpirySeconds() + 1);
+        int paddingBytes = request.getMinPaddingBytes()
+            + random.nextInt(request.getMaxPaddingBytes() - request.getMinPaddingBytes() + 1);
+        Date expiresAt = new Date(now + expirySeconds * 1000);
+
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+            .subject(subject)
+            .claim("email", subject + "@example.com")
+            .claim("name", subject)
+            .claim("roles", roles)
+            .claim("sid", subject + "-session")
+            .jwtID(Long.toHexString(now) + "-" + index)
+            .issuer("mock-issuer")
+            .audience("mock-audience")
+            .expirationTime(expiresAt)
+            .issueTime(new Date(now));
+        if (paddingBytes > 0) {
+            claims.claim("pad", padding.substring(0, paddingBytes));
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("token", signer.sign(claims.build()));
+        line.put("sub", subject);
+        line.put("roles", roles);
+        line.put("exp", expiresAt.getTime() / 1000);
+        return JSONObjectUtils.toJSONString(line);
+    }
+
+    private static List<String> pickRoles(List<BulkTokenRequest.RoleMix> mixes, int draw) {
+        for (BulkTokenRequest.RoleMix mix : mixes) {
+            draw -= mix.getWeight();
+            if (draw < 0) {
+                return mix.getRoles();
+            }
+        }
+        return mixes.get(mixes.size() - 1).getRoles();
+    }
+
+    private static String padding(int length) {
+        StringBuilder padding = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            padding.append((char) ('a' + i % 26));
         }
+        return padding.toString();
     }
 }
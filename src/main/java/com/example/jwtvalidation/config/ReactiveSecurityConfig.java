@@ -0,0 +1,250 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.authorization.AuthorizationEngine;
+import com.example.jwtvalidation.jwks.JwksKeyStore;
+import com.example.jwtvalidation.metrics.TimedReactiveJwtDecoder;
+import com.example.jwtvalidation.metrics.TimedServerBearerTokenConverter;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.model.ErrorResponse;
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import com.example.jwtvalidation.service.AuthorityMapper;
+import com.example.jwtvalidation.service.ExpiryAwareTimestampValidator;
+import com.example.jwtvalidation.service.ReactiveHybridTokenValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.web.server.BearerTokenServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Security configuration for reactive mode (spring.main.web-application-type=reactive).
+ *
+ * Serves the same endpoints with the same path rules as the servlet configurations, on Netty's
+ * event loop instead of a worker thread per request:
+ * - LOCAL: a {@link ReactiveJwtDecoder}; signature checks are CPU-only and run on the event loop
+ * - REMOTE: the non-blocking {@link ReactiveOpaqueTokenIntrospector} over WebClient
+ * - HYBRID: the {@link ReactiveHybridTokenValidator}, with the cache semantics of HYBRID mode
+ *
+ * Work that may block is moved off the event loop: a JWKS fetch for an unknown 'kid' and
+ * shared (L2) cache access in HYBRID mode run on the bounded elastic scheduler.
+ *
+ * Method security (@PreAuthorize) is enforced by Spring's reactive method interceptor, which
+ * only applies to handlers returning a Publisher: an annotated method returning anything else
+ * fails when called instead of running unchecked. Reactive-only handlers such as
+ * ReactiveAdminController are written that way.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity(useAuthorizationManager = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private static final String REAL_LOCAL_MODE = "'${app.security.mock-enabled:true}' == 'false'"
+        + " and '${app.security.validation-mode:LOCAL}'.equalsIgnoreCase('LOCAL')";
+
+    /**
+     * Netty, even with Tomcat on the classpath for servlet mode.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Puts the exchange into the subscriber context ahead of the security filters, so the
+     * introspection limiter can key per-client quotas on the caller's remote address.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public WebFilter serverWebExchangeContextFilter() {
+        return new ServerWebExchangeContextFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "LOCAL", matchIfMissing = true)
+    public SecurityWebFilterChain localSecurityWebFilterChain(ServerHttpSecurity http,
+                                                             AuthorizationEngine authorizationEngine,
+                                                             AuthorityMapper authorityMapper,
+                                                             ValidationMetrics metrics,
+                                                             ObjectMapper objectMapper) {
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        // Extract authorities from 'roles' claim instead of default 'scope'
+        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+            long start = metrics.start();
+            try {
+                return authorityMapper.fromRoles(jwt.getClaims().get("roles"));
+            } finally {
+                metrics.record(ValidationMetrics.Stage.AUTHORITY_MAPPING, start);
+            }
+        });
+
+        return authorize(http, authorizationEngine)
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenConverter(new TimedServerBearerTokenConverter(metrics))
+                .authenticationFailureHandler(failureHandler(objectMapper))
+                .jwt(jwt -> jwt
+                    .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(converter))
+                )
+            )
+            .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "REMOTE")
+    public SecurityWebFilterChain remoteSecurityWebFilterChain(ServerHttpSecurity http,
+                                                              AuthorizationEngine authorizationEngine,
+                                                              ReactiveOpaqueTokenIntrospector introspector,
+                                                              ValidationMetrics metrics,
+                                                              ObjectMapper objectMapper) {
+        return authorize(http, authorizationEngine)
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenConverter(new TimedServerBearerTokenConverter(metrics))
+                .authenticationFailureHandler(failureHandler(objectMapper))
+                .opaqueToken(opaque -> opaque.introspector(introspector))
+            )
+            .build();
+    }
+
+    /**
+     * HYBRID mode validates through the hybrid validator, plugged in as the introspector.
+     * Its JWT failures are reported the way the resource server reports introspection failures.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+    public SecurityWebFilterChain hybridSecurityWebFilterChain(ServerHttpSecurity http,
+                                                              AuthorizationEngine authorizationEngine,
+                                                              ReactiveHybridTokenValidator validator,
+                                                              ValidationMetrics metrics,
+                                                              ObjectMapper objectMapper) {
+        ReactiveOpaqueTokenIntrospector hybridIntrospector = token -> validator.validateToken(token)
+            .onErrorMap(JwtException.class, e -> e instanceof BadJwtException
+                ? new BadOpaqueTokenException(e.getMessage(), e)
+                : new OAuth2IntrospectionException(e.getMessage(), e));
+
+        return authorize(http, authorizationEngine)
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .bearerTokenConverter(new TimedServerBearerTokenConverter(metrics))
+                .authenticationFailureHandler(failureHandler(objectMapper))
+                .opaqueToken(opaque -> opaque.introspector(hybridIntrospector))
+            )
+            .build();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnExpression(REAL_LOCAL_MODE)
+    public JwksKeyStore jwksKeyStore(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${app.security.jwks.refresh-interval-seconds:300}") long refreshIntervalSeconds,
+            @Value("${app.security.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs,
+            @Value("${app.security.jwks.timeout-ms:2000}") int timeoutMs) throws MalformedURLException {
+        JwksKeyStore keyStore = new JwksKeyStore(
+            new URL(jwkSetUri), refreshIntervalSeconds, minRefreshIntervalMs, timeoutMs);
+        keyStore.start();
+        return keyStore;
+    }
+
+    /**
+     * Decoder verifying signatures against the kid-indexed key store. Only a token whose kid is
+     * not loaded yet, which may fetch the key set, leaves the event loop.
+     */
+    @Bean
+    @ConditionalOnExpression(REAL_LOCAL_MODE)
+    public ReactiveJwtDecoder reactiveJwtDecoder(
+            JwksKeyStore jwksKeyStore,
+            ValidationMetrics metrics,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(jwksKeyStore);
+        // Claims are validated by Spring's validators below, as NimbusReactiveJwtDecoder does by default
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusReactiveJwtDecoder decoder = new NimbusReactiveJwtDecoder(jwt -> {
+            Mono<JWTClaimsSet> claims = Mono.fromCallable(() -> {
+                try {
+                    return jwtProcessor.process(jwt, null);
+                } catch (BadJOSEException e) {
+                    throw new BadJwtException("Failed to validate the token", e);
+                } catch (JOSEException e) {
+                    throw new JwtException("Failed to validate the token", e);
+                }
+            });
+            String kid = jwt instanceof SignedJWT signed ? signed.getHeader().getKeyID() : null;
+            return jwksKeyStore.hasKey(kid) ? claims : claims.subscribeOn(Schedulers.boundedElastic());
+        });
+        decoder.setJwtValidator(ExpiryAwareTimestampValidator.withIssuer(issuerUri));
+        return new TimedReactiveJwtDecoder(decoder, metrics);
+    }
+
+    /**
+     * Path rules shared by all modes, compiled in AuthorizationConfig as for the servlet chains.
+     */
+    private static ServerHttpSecurity authorize(ServerHttpSecurity http, AuthorizationEngine authorizationEngine) {
+        return http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchanges -> exchanges
+                .anyExchange().access(authorizationEngine.reactive())
+            );
+    }
+
+    /**
+     * 503 with Retry-After while the identity provider is unavailable (as BearerTokenFailureHandler
+     * answers in servlet mode), the usual bearer-token 401 otherwise.
+     */
+    private static ServerAuthenticationFailureHandler failureHandler(ObjectMapper objectMapper) {
+        ServerAuthenticationFailureHandler unauthorized =
+            new ServerAuthenticationEntryPointFailureHandler(new BearerTokenServerAuthenticationEntryPoint());
+        return (webFilterExchange, exception) -> {
+            IntrospectionUnavailableException unavailable = IntrospectionUnavailableException.find(exception);
+            if (unavailable == null) {
+                return unauthorized.onAuthenticationFailure(webFilterExchange, exception);
+            }
+            ServerHttpResponse response = webFilterExchange.getExchange().getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(unavailable.getRetryAfterSeconds()));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(new ErrorResponse(
+                    "IDP_UNAVAILABLE", "Token introspection unavailable: " + unavailable.getMessage())))
+                .flatMap(body -> response.writeWith(Mono.just(response.bufferFactory().wrap(body))));
+        };
+    }
+}
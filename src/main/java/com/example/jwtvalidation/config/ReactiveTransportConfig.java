@@ -0,0 +1,79 @@
+package com.example.jwtvalidation.config;
+
+import com.example.jwtvalidation.transport.IntrospectionTransportMetrics;
+import com.example.jwtvalidation.transport.TransportMetricsExchangeFilter;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP transport for the introspection client (REMOTE and HYBRID mode, reactive).
+ *
+ * A Reactor Netty client over a bounded keep-alive connection pool, configured from the same
+ * app.security.introspection.transport settings as the servlet transports: max-connections
+ * bounds the pool, acquire-timeout-ms how long a request may wait for a pooled connection,
+ * keep-alive-seconds how long an idle connection is kept, time-to-live-seconds (if set) how long
+ * any connection is reused. Requests waiting for a connection hold no thread.
+ */
+@Configuration
+@ConditionalOnExpression(RestTemplateConfig.REMOTE_OR_HYBRID)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransportConfig {
+
+    @Value("${app.security.introspection.transport.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.security.introspection.transport.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.security.introspection.transport.read-timeout-ms:3000}")
+    private long readTimeoutMs;
+
+    @Value("${app.security.introspection.transport.acquire-timeout-ms:500}")
+    private long acquireTimeoutMs;
+
+    @Value("${app.security.introspection.transport.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${app.security.introspection.transport.time-to-live-seconds:0}")
+    private long timeToLiveSeconds;
+
+    @Bean
+    public IntrospectionTransportMetrics introspectionTransportMetrics() {
+        return new IntrospectionTransportMetrics();
+    }
+
+    @Bean
+    public WebClient introspectionWebClient(IntrospectionTransportMetrics metrics) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("introspection")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMs))
+            .maxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+            .metrics(true, () -> (poolName, id, remoteAddress, poolMetrics) ->
+                metrics.bindPoolStats(() -> new IntrospectionTransportMetrics.PoolSnapshot(
+                    poolMetrics.acquiredSize(), poolMetrics.pendingAcquireSize(),
+                    poolMetrics.idleSize(), poolMetrics.maxAllocatedSize())));
+        if (timeToLiveSeconds > 0) {
+            pool.maxLifeTime(Duration.ofSeconds(timeToLiveSeconds));
+        }
+
+        HttpClient httpClient = HttpClient.create(pool.build())
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(readTimeoutMs))
+            .doOnConnected(connection -> metrics.recordConnectionOpened());
+
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(new TransportMetricsExchangeFilter(metrics))
+            .build();
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.jwtvalidation.config;
 
+import com.example.jwtvalidation.authorization.AuthorizationEngine;
+import com.example.jwtvalidation.exception.BearerTokenFailureHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -25,23 +28,25 @@ import org.springframework.security.web.SecurityFilterChain;
  */
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(prePostEnabled = true)
 @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "REMOTE")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RemoteValidationSecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AuthorizationEngine authorizationEngine,
+                                           ObjectMapper objectMapper) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session ->
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/public/**", "/health", "/actuator/**").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
-                .requestMatchers("/user/**").hasAnyRole("USER", "ADMIN")
-                .anyRequest().authenticated()
+                // Path rules from AuthorizationConfig, compiled at startup
+                .anyRequest().access(authorizationEngine)
             )
             .oauth2ResourceServer(oauth2 -> oauth2
+                // 503 + Retry-After while Keycloak is unavailable, instead of a 500
+                .withObjectPostProcessor(new BearerTokenFailureHandler(objectMapper).installer())
                 .opaqueToken(opaque -> {
                     // Opaque token introspection configuration
                     // This is configured in application.yml
@@ -1,16 +1,154 @@
 package com.example.jwtvalidation.config;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import com.example.jwtvalidation.execution.VirtualThreads;
+import com.example.jwtvalidation.transport.BoundedTransportInterceptor;
+import com.example.jwtvalidation.transport.IntrospectionTransportMetrics;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP transport for the introspection client, in REMOTE mode and for HYBRID's remote checks.
+ *
+ * Two transports are available (app.security.introspection.transport.type):
+ * - POOLED: Apache HttpClient with a bounded keep-alive connection pool (default)
+ * - HTTP2: JDK HttpClient, multiplexing requests over one HTTP/2 connection where the server supports it
+ *
+ * Both reuse connections across calls, so a steady-state introspection does not pay
+ * for a TCP/TLS handshake, and both apply connect/read timeouts to every call.
+ * For the pooled transport keep-alive-seconds is how long an idle connection is kept, and
+ * time-to-live-seconds, when set, how long any connection may be reused at all.
+ */
 @Configuration
-@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "REMOTE")
+@ConditionalOnExpression(RestTemplateConfig.REMOTE_OR_HYBRID)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RestTemplateConfig {
 
+    static final String REMOTE_OR_HYBRID = "'${app.security.validation-mode:LOCAL}'.equalsIgnoreCase('REMOTE')"
+        + " or '${app.security.validation-mode:LOCAL}'.equalsIgnoreCase('HYBRID')";
+
+    private final String transportType;
+    private final int maxConnections;
+    private final long connectTimeoutMs;
+    private final long readTimeoutMs;
+    private final long acquireTimeoutMs;
+    private final long keepAliveSeconds;
+    private final long timeToLiveSeconds;
+    private final String executionMode;
+
+    public RestTemplateConfig(
+            @Value("${app.security.introspection.transport.type:POOLED}") String transportType,
+            @Value("${app.security.introspection.transport.max-connections:50}") int maxConnections,
+            @Value("${app.security.introspection.transport.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.security.introspection.transport.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${app.security.introspection.transport.acquire-timeout-ms:500}") long acquireTimeoutMs,
+            @Value("${app.security.introspection.transport.keep-alive-seconds:60}") long keepAliveSeconds,
+            @Value("${app.security.introspection.transport.time-to-live-seconds:0}") long timeToLiveSeconds,
+            @Value("${app.execution-mode:PLATFORM}") String executionMode) {
+        this.transportType = transportType;
+        this.maxConnections = maxConnections;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.timeToLiveSeconds = timeToLiveSeconds;
+        this.executionMode = executionMode;
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public IntrospectionTransportMetrics introspectionTransportMetrics() {
+        return new IntrospectionTransportMetrics();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(IntrospectionTransportMetrics metrics) {
+        ClientHttpRequestFactory requestFactory = "HTTP2".equalsIgnoreCase(transportType)
+            ? jdkRequestFactory()
+            : pooledRequestFactory(metrics);
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(
+            new BoundedTransportInterceptor(metrics, maxConnections, acquireTimeoutMs));
+        return restTemplate;
+    }
+
+    /**
+     * Apache HttpClient with a bounded pool. New connections are counted as they are opened.
+     */
+    private ClientHttpRequestFactory pooledRequestFactory(IntrospectionTransportMetrics metrics) {
+        ManagedHttpClientConnectionFactory connectionFactory = ManagedHttpClientConnectionFactory.INSTANCE;
+
+        ConnectionConfig.Builder connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+            .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs));
+        if (timeToLiveSeconds > 0) {
+            connectionConfig.setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds));
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setConnectionFactory(socket -> {
+                metrics.recordConnectionOpened();
+                return connectionFactory.createConnection(socket);
+            })
+            .setDefaultConnectionConfig(connectionConfig.build())
+            .build();
+
+        metrics.bindPoolStats(() -> {
+            PoolStats stats = connectionManager.getTotalStats();
+            return new IntrospectionTransportMetrics.PoolSnapshot(
+                stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+        });
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+            .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * JDK HttpClient preferring HTTP/2. The JDK keeps its own connection pool,
+     * concurrency is bounded by the BoundedTransportInterceptor. In VIRTUAL execution mode the
+     * client completes responses on virtual threads instead of its default cached thread pool.
+     */
+    private ClientHttpRequestFactory jdkRequestFactory() {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if ("VIRTUAL".equalsIgnoreCase(executionMode) && VirtualThreads.isSupported()) {
+            builder.executor(VirtualThreads.newThreadPerTaskExecutor("introspection-http-"));
+        }
+        HttpClient httpClient = builder.build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return requestFactory;
     }
 }
@@ -1,5 +1,6 @@
 package com.example.jwtvalidation.controller;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -8,8 +9,13 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Admin endpoints (servlet), guarded by @PreAuthorize on top of the /admin/** path rule.
+ * The reactive stack uses {@link ReactiveAdminController}.
+ */
 @RestController
 @RequestMapping("/admin")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AdminController {
 
     /**
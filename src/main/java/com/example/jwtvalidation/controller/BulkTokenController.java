@@ -0,0 +1,50 @@
+package com.example.jwtvalidation.controller;
+
+import com.example.jwtvalidation.config.MockJwtConfig;
+import com.example.jwtvalidation.model.BulkTokenRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams mock token corpora for load tests (servlet mode).
+ * Only available when mock mode is enabled.
+ */
+@RestController
+@RequestMapping("/public/mock")
+@ConditionalOnProperty(name = "app.security.mock-enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BulkTokenController {
+
+    @Autowired
+    private MockJwtConfig mockJwtConfig;
+
+    /**
+     * Mint a token corpus for load tests, streamed as NDJSON (one token per line).
+     * Example: curl -X POST .../public/mock/bulk-tokens -d '{"count":10000,"subjects":500}' > tokens.ndjson
+     */
+    @PostMapping("/bulk-tokens")
+    public ResponseEntity<StreamingResponseBody> generateBulkTokens(
+            @RequestBody(required = false) BulkTokenRequest request) {
+        BulkTokenRequest spec = request != null ? request : new BulkTokenRequest();
+        spec.validate();
+
+        StreamingResponseBody body = outputStream -> {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            mockJwtConfig.writeTokens(spec, out);
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.jwtvalidation.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoints (reactive), the same as {@link AdminController}.
+ * Handlers return a Mono because reactive method security only intercepts
+ * Publisher-returning methods.
+ */
+@RestController
+@RequestMapping("/admin")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAdminController {
+
+    /**
+     * Admin-only endpoint.
+     * Requires ADMIN role.
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Map<String, Object>>> getDashboard() {
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("message", "Welcome to Admin Dashboard");
+        dashboard.put("totalUsers", 1234);
+        dashboard.put("activeUsers", 567);
+        dashboard.put("systemStatus", "Healthy");
+
+        return Mono.just(ResponseEntity.ok(dashboard));
+    }
+
+    /**
+     * Admin-only data endpoint.
+     */
+    @PostMapping("/data")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<String>> postAdminData(@RequestBody Map<String, Object> data) {
+        return Mono.just(ResponseEntity.ok("Admin data processed successfully: " + data.size() + " fields"));
+    }
+
+    /**
+     * Get admin info.
+     */
+    @GetMapping("/info")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Map<String, String>>> getAdminInfo(Authentication authentication) {
+        Map<String, String> info = new HashMap<>();
+        info.put("role", "Administrator");
+        info.put("access", "Full System Access");
+        info.put("user", authentication.getName());
+
+        return Mono.just(ResponseEntity.ok(info));
+    }
+}
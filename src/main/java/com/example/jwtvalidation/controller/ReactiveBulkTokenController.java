@@ -0,0 +1,60 @@
+package com.example.jwtvalidation.controller;
+
+import com.example.jwtvalidation.config.MockJwtConfig;
+import com.example.jwtvalidation.model.BulkTokenRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams mock token corpora for load tests (reactive mode).
+ * Minting runs on the bounded elastic scheduler, not on the event loop, and only writes ahead
+ * as fast as the client reads. Only available when mock mode is enabled.
+ */
+@RestController
+@RequestMapping("/public/mock")
+@ConditionalOnProperty(name = "app.security.mock-enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBulkTokenController {
+
+    @Autowired
+    private MockJwtConfig mockJwtConfig;
+
+    /**
+     * Mint a token corpus for load tests, streamed as NDJSON (one token per line).
+     */
+    @PostMapping("/bulk-tokens")
+    public ResponseEntity<Flux<DataBuffer>> generateBulkTokens(
+            @RequestBody(required = false) BulkTokenRequest request) {
+        BulkTokenRequest spec = request != null ? request : new BulkTokenRequest();
+        spec.validate();
+
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+            try {
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                mockJwtConfig.writeTokens(spec, out);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, Schedulers.boundedElastic()::schedule));
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+}
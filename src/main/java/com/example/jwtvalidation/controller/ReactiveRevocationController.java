@@ -0,0 +1,50 @@
+package com.example.jwtvalidation.controller;
+
+import com.example.jwtvalidation.model.RevocationEvent;
+import com.example.jwtvalidation.revocation.RevocationIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local ingest endpoint for revocation events (HYBRID mode, reactive).
+ * Only accepts calls from the same host, like {@link RevocationController}.
+ */
+@RestController
+@RequestMapping("/internal/revocations")
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRevocationController {
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    /**
+     * Ingest one or more revocation events.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> ingest(@RequestBody List<RevocationEvent> events,
+                                                      ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null || !remote.getAddress().isLoopbackAddress()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        events.forEach(revocationIndex::revoke);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accepted", events.size());
+        response.put("indexSize", revocationIndex.size());
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.jwtvalidation.controller;
+
+import com.example.jwtvalidation.model.RevocationEvent;
+import com.example.jwtvalidation.revocation.RevocationIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local ingest endpoint for revocation events (HYBRID mode).
+ * Only accepts calls from the same host, e.g. a sidecar relaying Keycloak admin events.
+ */
+@RestController
+@RequestMapping("/internal/revocations")
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RevocationController {
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    /**
+     * Ingest one or more revocation events.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> ingest(@RequestBody List<RevocationEvent> events,
+                                                      HttpServletRequest request) {
+        if (!isLocal(request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        events.forEach(revocationIndex::revoke);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accepted", events.size());
+        response.put("indexSize", revocationIndex.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    private boolean isLocal(String remoteAddr) {
+        try {
+            return InetAddress.getByName(remoteAddr).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
@@ -68,6 +69,9 @@ public class UserController {
         if (authentication instanceof JwtAuthenticationToken) {
             Jwt jwt = ((JwtAuthenticationToken) authentication).getToken();
             return jwt.getClaims();
+        } else if (authentication.getPrincipal() instanceof OAuth2AuthenticatedPrincipal) {
+            // Introspected or hybrid-validated principal; lazy principals parse their claims here
+            return ((OAuth2AuthenticatedPrincipal) authentication.getPrincipal()).getAttributes();
         } else if (authentication.getPrincipal() instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> claims = (Map<String, Object>) authentication.getPrincipal();
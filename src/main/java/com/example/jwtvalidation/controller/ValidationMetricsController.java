@@ -0,0 +1,60 @@
+package com.example.jwtvalidation.controller;
+
+import com.example.jwtvalidation.client.ClientCredentialsTokenManager;
+import com.example.jwtvalidation.client.ServiceToServiceCalls;
+import com.example.jwtvalidation.jwks.JwksKeyStore;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.transport.IntrospectionTransportMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exports validation metrics: stage latencies, cache statistics, introspection failures and,
+ * where the mode uses them, the introspection transport and JWKS key store. With outbound calls
+ * enabled, also the client-credentials tokens and the downstream pools.
+ */
+@RestController
+@RequestMapping("/actuator/validation")
+public class ValidationMetricsController {
+
+    @Autowired
+    private ValidationMetrics metrics;
+
+    @Autowired
+    private ObjectProvider<IntrospectionTransportMetrics> transportMetrics;
+
+    @Autowired
+    private ObjectProvider<JwksKeyStore> jwksKeyStore;
+
+    @Autowired
+    private ObjectProvider<ClientCredentialsTokenManager> clientCredentials;
+
+    @Autowired
+    private ObjectProvider<ServiceToServiceCalls> downstreamCalls;
+
+    @GetMapping
+    public Map<String, Object> metrics() {
+        Map<String, Object> response = new LinkedHashMap<>(metrics.snapshot());
+
+        transportMetrics.ifAvailable(transport -> response.put("transport", transport.snapshot()));
+
+        jwksKeyStore.ifAvailable(keyStore -> {
+            Map<String, Object> jwks = new LinkedHashMap<>();
+            jwks.put("keys", keyStore.getKeyCount());
+            jwks.put("lastFetchedAt", keyStore.getLastFetchedAt());
+            jwks.put("refreshFailures", keyStore.getRefreshFailures());
+            response.put("jwks", jwks);
+        });
+
+        clientCredentials.ifAvailable(tokens -> response.put("clientCredentials", tokens.snapshot()));
+        downstreamCalls.ifAvailable(calls -> response.put("downstream", calls.snapshot()));
+
+        return response;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.jwtvalidation.crypto;
+
+import com.example.jwtvalidation.execution.ReusableInstances;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HS256 signer built once per key. Also verifies JWSs it signed.
+ *
+ * Nimbus' MACSigner looks up and initialises a new {@link Mac} on every sign. This signer keeps
+ * initialised Macs (one per platform thread, a small pool for virtual threads) and the encoded
+ * header, so signing a token is serialising the claims plus a single HMAC. Thread-safe.
+ */
+public final class HmacJwsSigner {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final String encodedHeader;
+    private final ReusableInstances<Mac> macs;
+
+    public HmacJwsSigner(byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("HS256 requires a secret of at least 256 bits");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.clone(), HMAC_SHA256);
+        this.encodedHeader = new JWSHeader(JWSAlgorithm.HS256).toBase64URL().toString();
+        this.macs = new ReusableInstances<>(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_SHA256);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Signs the claims and returns the compact serialised JWS.
+     */
+    public String sign(JWTClaimsSet claims) {
+        String signingInput = encodedHeader + '.' + claims.toPayload().toBase64URL();
+        byte[] input = signingInput.getBytes(StandardCharsets.US_ASCII);
+        // doFinal resets the Mac, so the instance is ready for the next token
+        byte[] signature = macs.apply(mac -> mac.doFinal(input));
+        return signingInput + '.' + BASE64_URL.encodeToString(signature);
+    }
+
+    /**
+     * Checks the HMAC of a compact JWS with this signer's header. Does not look at the claims.
+     */
+    public boolean verify(String jws) {
+        int signatureStart = jws.lastIndexOf('.');
+        if (signatureStart < 0 || !jws.startsWith(encodedHeader + '.')) {
+            return false;
+        }
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(jws.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] input = jws.substring(0, signatureStart).getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = macs.apply(mac -> mac.doFinal(input));
+        return MessageDigest.isEqual(expected, signature);
+    }
+}
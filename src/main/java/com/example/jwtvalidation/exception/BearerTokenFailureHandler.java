@@ -0,0 +1,70 @@
+package com.example.jwtvalidation.exception;
+
+import com.example.jwtvalidation.model.ErrorResponse;
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Failure handler for the servlet {@link BearerTokenAuthenticationFilter}.
+ *
+ * The resource server wraps an introspector's {@link IntrospectionUnavailableException} in an
+ * {@link AuthenticationServiceException}, which the filter's default handler rethrows, so the
+ * client got a 500. SecurityExceptionHandler only sees exceptions from controllers. This handler
+ * answers 503 with Retry-After instead, the same response ReactiveSecurityConfig sends.
+ * Rejected tokens get the usual bearer-token 401; other service failures are rethrown as before.
+ */
+public class BearerTokenFailureHandler implements AuthenticationFailureHandler {
+
+    private final AuthenticationEntryPoint entryPoint = new BearerTokenAuthenticationEntryPoint();
+    private final ObjectMapper objectMapper;
+
+    public BearerTokenFailureHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        IntrospectionUnavailableException unavailable = IntrospectionUnavailableException.find(exception);
+        if (unavailable != null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(unavailable.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                "IDP_UNAVAILABLE", "Token introspection unavailable: " + unavailable.getMessage()));
+            return;
+        }
+        if (exception instanceof AuthenticationServiceException) {
+            throw exception;
+        }
+        entryPoint.commence(request, response, exception);
+    }
+
+    /**
+     * Installs this handler on the filter built by oauth2ResourceServer(), which has no setter for it.
+     */
+    public ObjectPostProcessor<BearerTokenAuthenticationFilter> installer() {
+        return new ObjectPostProcessor<>() {
+            @Override
+            public <O extends BearerTokenAuthenticationFilter> O postProcess(O filter) {
+                filter.setAuthenticationFailureHandler(BearerTokenFailureHandler.this);
+                return filter;
+            }
+        };
+    }
+}
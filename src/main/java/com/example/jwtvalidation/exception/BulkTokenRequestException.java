@@ -0,0 +1,11 @@
+package com.example.jwtvalidation.exception;
+
+/**
+ * A bulk mock-token request with a shape that cannot or may not be generated.
+ */
+public class BulkTokenRequestException extends RuntimeException {
+
+    public BulkTokenRequestException(String message) {
+        super(message);
+    }
+}
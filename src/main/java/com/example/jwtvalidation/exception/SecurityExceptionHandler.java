@@ -1,6 +1,8 @@
 package com.example.jwtvalidation.exception;
 
 import com.example.jwtvalidation.model.ErrorResponse;
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -37,6 +39,14 @@ public class SecurityExceptionHandler {
             .body(new ErrorResponse("TOKEN_INTROSPECTION_FAILED", "Token introspection failed: " + ex.getMessage()));
     }
 
+    @ExceptionHandler(IntrospectionUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleIntrospectionUnavailable(IntrospectionUnavailableException ex) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+            .body(new ErrorResponse("IDP_UNAVAILABLE", "Token introspection unavailable: " + ex.getMessage()));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
         return ResponseEntity
@@ -44,6 +54,13 @@ public class SecurityExceptionHandler {
             .body(new ErrorResponse("FORBIDDEN", "Insufficient permissions: " + ex.getMessage()));
     }
 
+    @ExceptionHandler(BulkTokenRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBulkTokenRequest(BulkTokenRequestException ex) {
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorResponse("BAD_REQUEST", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         return ResponseEntity
@@ -0,0 +1,57 @@
+package com.example.jwtvalidation.execution;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reusable instances of a stateful, non-thread-safe object such as a MessageDigest or Mac.
+ *
+ * Platform threads are pooled and long-lived, so each keeps one instance in a ThreadLocal.
+ * Virtual threads are created per request: a ThreadLocal would build a new instance for every
+ * request and drop it when the thread ends. Virtual threads therefore borrow from a small shared
+ * pool, sized to the carrier threads that can run at once, and return the instance afterwards.
+ */
+public final class ReusableInstances<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final BlockingQueue<T> pool;
+
+    public ReusableInstances(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    ReusableInstances(Supplier<T> factory, int poolSize) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Runs the action with an instance no other thread uses meanwhile. The action must leave the
+     * instance reset (for example by calling digest or doFinal) for the next caller.
+     */
+    public <R> R apply(Function<T, R> action) {
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            return applyPooled(action);
+        }
+        return action.apply(perThread.get());
+    }
+
+    <R> R applyPooled(Function<T, R> action) {
+        T instance = pool.poll();
+        if (instance == null) {
+            instance = factory.get();
+        }
+        R result = action.apply(instance);
+        // Not reached if the action threw and may have left the instance mid-update; a full pool drops it
+        pool.offer(instance);
+        return result;
+    }
+
+    int pooled() {
+        return pool.size();
+    }
+}
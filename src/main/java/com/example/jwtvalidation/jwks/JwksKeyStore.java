@@ -0,0 +1,201 @@
+package com.example.jwtvalidation.jwks;
+
+import com.example.jwtvalidation.cache.SingleFlight;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signing keys from Keycloak's JWKS endpoint, indexed by 'kid'.
+ *
+ * Keys are parsed into {@link PublicKey}s once per fetch, so verifying a token is a map lookup
+ * plus the signature check. The key set is refreshed in the background on a schedule; a token
+ * with an unknown 'kid' (key rotation) triggers one coalesced fetch, rate limited so a flood of
+ * forged kids cannot hammer the certs endpoint. If Keycloak is unreachable the last good key set
+ * stays in use.
+ *
+ * The first fetch runs in the background, so startup never waits for Keycloak; a token that
+ * arrives before it completes joins it, waiting at most the fetch timeout.
+ */
+public class JwksKeyStore implements JWSKeySelector<SecurityContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyStore.class);
+
+    private static final String REFRESH = "jwks";
+    private static final int SIZE_LIMIT = 50 * 1024;
+
+    private final URL jwkSetUrl;
+    private final long refreshIntervalSeconds;
+    private final long minRefreshIntervalMs;
+    private final int timeoutMs;
+    private final SingleFlight<String, KeySet> refreshes = new SingleFlight<>();
+    private final AtomicLong lastRefreshAttempt = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile KeySet keySet = KeySet.EMPTY;
+
+    /**
+     * A verification key with its type, so a token is only checked against keys of its algorithm family.
+     */
+    private record VerificationKey(KeyType type, PublicKey key) {
+    }
+
+    /**
+     * An immutable snapshot of the key set.
+     */
+    private record KeySet(Map<String, VerificationKey> byKid, List<VerificationKey> all, Instant fetchedAt) {
+        static final KeySet EMPTY = new KeySet(Map.of(), List.of(), null);
+    }
+
+    public JwksKeyStore(URL jwkSetUrl, long refreshIntervalSeconds, long minRefreshIntervalMs, int timeoutMs) {
+        this.jwkSetUrl = jwkSetUrl;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Schedules the first load at once and background refreshes after it, without waiting for
+     * either. A failed initial load is retried by the first token with an unknown kid.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> refresh(true),
+            0, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) {
+        KeyType type = KeyType.forAlgorithm(header.getAlgorithm());
+        String kid = header.getKeyID();
+
+        List<Key> keys = select(keySet, kid, type);
+        if (keys.isEmpty() && kid != null) {
+            // Unknown kid - the signing key may have been rotated
+            keys = select(refresh(false), kid, type);
+        }
+        return keys;
+    }
+
+    private static List<Key> select(KeySet keys, String kid, KeyType type) {
+        if (kid != null) {
+            VerificationKey key = keys.byKid().get(kid);
+            return key != null && key.type().equals(type) ? List.of(key.key()) : List.of();
+        }
+        List<Key> matching = new ArrayList<>();
+        for (VerificationKey key : keys.all()) {
+            if (key.type().equals(type)) {
+                matching.add(key.key());
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Fetches the key set, unless another fetch is in flight (joined) or the last attempt was too recent.
+     * Returns the key set in use afterwards.
+     *
+     * The rate limit is checked by the caller that runs the flight, so concurrent callers for
+     * unknown kids never race past it between the check and the fetch.
+     */
+    private KeySet refresh(boolean scheduled) {
+        try {
+            return refreshes.execute(REFRESH, () -> {
+                long now = System.currentTimeMillis();
+                if (!scheduled && now - lastRefreshAttempt.get() < minRefreshIntervalMs) {
+                    return keySet;
+                }
+                lastRefreshAttempt.set(now);
+                KeySet fetched = fetch();
+                keySet = fetched;
+                return fetched;
+            });
+        } catch (RuntimeException e) {
+            refreshFailures.incrementAndGet();
+            log.warn("JWKS refresh from {} failed, keeping {} known keys: {}",
+                jwkSetUrl, keySet.byKid().size(), e.getMessage());
+            return keySet;
+        }
+    }
+
+    private KeySet fetch() {
+        JWKSet jwkSet;
+        try {
+            jwkSet = JWKSet.load(jwkSetUrl, timeoutMs, timeoutMs, SIZE_LIMIT);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load JWKS: " + e.getMessage(), e);
+        }
+
+        Map<String, VerificationKey> byKid = new HashMap<>();
+        List<VerificationKey> all = new ArrayList<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (!(jwk instanceof AsymmetricJWK asymmetric)
+                    || (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                continue;
+            }
+            try {
+                VerificationKey key = new VerificationKey(jwk.getKeyType(), asymmetric.toPublicKey());
+                all.add(key);
+                if (jwk.getKeyID() != null) {
+                    byKid.put(jwk.getKeyID(), key);
+                }
+            } catch (JOSEException e) {
+                log.warn("Skipping unusable JWK {}: {}", jwk.getKeyID(), e.getMessage());
+            }
+        }
+        return new KeySet(Collections.unmodifiableMap(byKid), List.copyOf(all), Instant.now());
+    }
+
+    /**
+     * Whether a token with this kid can be verified without fetching the key set.
+     * A token without a kid is checked against the keys already loaded.
+     */
+    public boolean hasKey(String kid) {
+        return kid == null || keySet.byKid().containsKey(kid);
+    }
+
+    public int getKeyCount() {
+        return keySet.byKid().size();
+    }
+
+    /**
+     * Time of the last successful fetch, or null if none succeeded yet.
+     */
+    public Instant getLastFetchedAt() {
+        return keySet.fetchedAt();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.get();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.jwtvalidation.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bearer token resolver that records header extraction latency.
+ * Picked up by the resource server configuration as the BearerTokenResolver bean.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TimedBearerTokenResolver implements BearerTokenResolver {
+
+    private final BearerTokenResolver delegate = new DefaultBearerTokenResolver();
+    private final ValidationMetrics metrics;
+
+    public TimedBearerTokenResolver(ValidationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String resolve(HttpServletRequest request) {
+        long start = metrics.start();
+        try {
+            return delegate.resolve(request);
+        } finally {
+            metrics.record(ValidationMetrics.Stage.HEADER_EXTRACTION, start);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.jwtvalidation.metrics;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Records decode/verify latency of the wrapped decoder.
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final ValidationMetrics metrics;
+
+    public TimedJwtDecoder(JwtDecoder delegate, ValidationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = metrics.start();
+        try {
+            return delegate.decode(token);
+        } finally {
+            metrics.record(ValidationMetrics.Stage.DECODE, start);
+        }
+    }
+}
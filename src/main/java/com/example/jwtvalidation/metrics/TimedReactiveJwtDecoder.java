@@ -0,0 +1,29 @@
+package com.example.jwtvalidation.metrics;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records decode/verify latency of the wrapped reactive decoder, from subscription to its signal.
+ */
+public class TimedReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final ValidationMetrics metrics;
+
+    public TimedReactiveJwtDecoder(ReactiveJwtDecoder delegate, ValidationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        return Mono.defer(() -> {
+            long start = metrics.start();
+            return delegate.decode(token)
+                .doFinally(signal -> metrics.record(ValidationMetrics.Stage.DECODE, start));
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.jwtvalidation.metrics;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.web.server.authentication.ServerBearerTokenAuthenticationConverter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link TimedBearerTokenResolver}: records header extraction latency.
+ */
+public class TimedServerBearerTokenConverter implements ServerAuthenticationConverter {
+
+    private final ServerBearerTokenAuthenticationConverter delegate = new ServerBearerTokenAuthenticationConverter();
+    private final ValidationMetrics metrics;
+
+    public TimedServerBearerTokenConverter(ValidationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        return Mono.defer(() -> {
+            long start = metrics.start();
+            return delegate.convert(exchange)
+                .doFinally(signal -> metrics.record(ValidationMetrics.Stage.HEADER_EXTRACTION, start));
+        });
+    }
+}
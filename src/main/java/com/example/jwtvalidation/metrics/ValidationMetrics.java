@@ -0,0 +1,134 @@
+package com.example.jwtvalidation.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Auth cost instrumentation: per-stage latency histograms, cache statistics,
+ * introspection failure counters and component state, exported through /actuator/validation.
+ */
+@Component
+public class ValidationMetrics {
+
+    /**
+     * The stages of validating a request.
+     */
+    public enum Stage {
+        HEADER_EXTRACTION,
+        DECODE,
+        INTROSPECTION,
+        AUTHORITY_MAPPING
+    }
+
+    private record CacheSource(Supplier<CacheStats> stats, LongSupplier size) {
+    }
+
+    private final String mode;
+    private final Map<Stage, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private final Map<String, CacheSource> caches = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Map<String, Object>>> components = new ConcurrentHashMap<>();
+    private final LongAdder introspectionErrors = new LongAdder();
+    private final LongAdder introspectionTimeouts = new LongAdder();
+
+    public ValidationMetrics(@Value("${app.security.validation-mode:LOCAL}") String mode) {
+        this.mode = mode;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Start time for {@link #record(Stage, long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a failed introspection call (not an inactive token) as a timeout or an error.
+     */
+    public void recordIntrospectionFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                introspectionTimeouts.increment();
+                return;
+            }
+        }
+        introspectionErrors.increment();
+    }
+
+    /**
+     * Exports a Guava cache's statistics. The cache must be built with recordStats().
+     *
+     * Only size, hits, misses and evictions are exported: the caches registered here are filled
+     * with put, never through a loader, so Guava's load counts and load times would always be 0.
+     */
+    public void registerCache(String name, Cache<?, ?> cache) {
+        registerCache(name, cache::stats, cache::size);
+    }
+
+    public void registerCache(String name, Supplier<CacheStats> stats, LongSupplier size) {
+        caches.put(name, new CacheSource(stats, size));
+    }
+
+    /**
+     * Exports the state of a component (circuit breaker, limiter, ...) under "components".
+     */
+    public void registerComponent(String name, Supplier<Map<String, Object>> snapshot) {
+        components.put(name, snapshot);
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return stages.get(stage);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stageSnapshots = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            stageSnapshots.put(stage.name(), stages.get(stage).snapshot());
+        }
+
+        Map<String, Object> cacheSnapshots = new TreeMap<>();
+        caches.forEach((name, source) -> {
+            CacheStats stats = source.stats().get();
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("size", source.size().getAsLong());
+            cache.put("hits", stats.hitCount());
+            cache.put("misses", stats.missCount());
+            cache.put("hitRate", stats.hitRate());
+            cache.put("evictions", stats.evictionCount());
+            cacheSnapshots.put(name, cache);
+        });
+
+        Map<String, Object> introspection = new LinkedHashMap<>();
+        introspection.put("errors", introspectionErrors.sum());
+        introspection.put("timeouts", introspectionTimeouts.sum());
+
+        Map<String, Object> componentSnapshots = new TreeMap<>();
+        components.forEach((name, source) -> componentSnapshots.put(name, source.get()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("mode", mode);
+        snapshot.put("stages", stageSnapshots);
+        snapshot.put("caches", cacheSnapshots);
+        snapshot.put("introspection", introspection);
+        snapshot.put("components", componentSnapshots);
+        return snapshot;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.jwtvalidation.model;
+
+import com.example.jwtvalidation.exception.BulkTokenRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shape of a bulk mock-token corpus.
+ *
+ * Subjects are drawn uniformly from 'subjects' distinct users, roles from the weighted role
+ * mixes. Each token gets a padding claim of minPaddingBytes..maxPaddingBytes characters and
+ * expires minExpirySeconds..maxExpirySeconds from now (negative values mint expired tokens).
+ * The same seed produces the same subjects, roles, sizes and expiry offsets.
+ */
+@Data
+@NoArgsConstructor
+public class BulkTokenRequest {
+
+    /** Limits for the public mock endpoint: at most about 100 MB of tokens per request. */
+    public static final int MAX_COUNT = 20_000;
+    public static final int MAX_PADDING_BYTES = 4 * 1024;
+
+    private int count = 1000;
+    private int subjects = 100;
+    private List<RoleMix> roleMixes = new ArrayList<>(List.of(
+        new RoleMix(List.of("USER"), 9),
+        new RoleMix(List.of("ADMIN", "USER"), 1)));
+    private int minPaddingBytes = 0;
+    private int maxPaddingBytes = 0;
+    private long minExpirySeconds = 3600;
+    private long maxExpirySeconds = 3600;
+    private long seed = 42;
+
+    /**
+     * A set of roles and its relative weight.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RoleMix {
+        private List<String> roles;
+        private int weight;
+    }
+
+    /**
+     * Rejects shapes that cannot be generated.
+     *
+     * @throws BulkTokenRequestException answered with 400 by SecurityExceptionHandler
+     */
+    public void validate() {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new BulkTokenRequestException("count must be between 1 and " + MAX_COUNT);
+        }
+        if (subjects < 1) {
+            throw new BulkTokenRequestException("subjects must be at least 1");
+        }
+        if (roleMixes == null || roleMixes.isEmpty()
+                || roleMixes.stream().anyMatch(mix -> mix.getRoles() == null || mix.getWeight() < 1)) {
+            throw new BulkTokenRequestException("roleMixes need roles and a positive weight");
+        }
+        if (minPaddingBytes < 0 || maxPaddingBytes < minPaddingBytes || maxPaddingBytes > MAX_PADDING_BYTES) {
+            throw new BulkTokenRequestException("padding range is invalid");
+        }
+        if (maxExpirySeconds < minExpirySeconds) {
+            throw new BulkTokenRequestException("expiry range is invalid");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.jwtvalidation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A revocation pushed by the identity provider (logout, admin revoke, ...).
+ *
+ * type is "jti" (one token), "sid" (all tokens of a session) or "sub" (all tokens of a user
+ * issued up to revokedAt). exp is when the revoked tokens expire anyway - the entry is dropped
+ * then. Times are epoch seconds.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevocationEvent {
+    private String type;
+    private String value;
+    private Long exp;
+    private Long revokedAt;
+}
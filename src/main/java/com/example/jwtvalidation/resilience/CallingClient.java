@@ -0,0 +1,46 @@
+package com.example.jwtvalidation.resilience;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import reactor.util.context.ContextView;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The remote address of the request being authenticated, which {@link IntrospectionLimiter} keys
+ * per-client quotas on. Behind a reverse proxy, set server.forward-headers-strategy so that this is
+ * the address of the calling client rather than the proxy.
+ */
+public final class CallingClient {
+
+    private CallingClient() {
+    }
+
+    /**
+     * The remote address of the servlet request bound to the current thread, null outside a request.
+     */
+    public static String remoteAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            return servlet.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * The remote address of the exchange in a reactive subscriber context, null if there is none.
+     * The exchange is put there by the ServerWebExchangeContextFilter registered in ReactiveSecurityConfig.
+     */
+    public static String remoteAddress(ContextView context) {
+        return ServerWebExchangeContextFilter.getExchange(context)
+            .map(exchange -> exchange.getRequest().getRemoteAddress())
+            .map(CallingClient::host)
+            .orElse(null);
+    }
+
+    private static String host(InetSocketAddress address) {
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.jwtvalidation.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for introspection calls that reacts to slowness as well as errors.
+ *
+ * The last window-size calls are tracked. Once at least minimum-calls are in the window, the
+ * circuit opens if the error rate reaches the failure threshold or the configured latency
+ * percentile (e.g. p90) reaches the slow-call threshold. An open circuit rejects calls with
+ * {@link IntrospectionUnavailableException} without touching the network.
+ *
+ * After the open duration the circuit is half-open: at most probe-concurrency calls go through
+ * as probes, everything else is still rejected. Enough consecutive good probes close the
+ * circuit; a failed or slow probe opens it again for twice as long (up to max-open-duration),
+ * so a provider that stays down is probed less and less often.
+ *
+ * An inactive-token answer counts as a success - the provider responded.
+ *
+ * State is guarded by a ReentrantLock rather than a monitor, so a virtual thread waiting for it
+ * parks instead of pinning its carrier.
+ */
+public class IntrospectionCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(IntrospectionCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final NanoClock clock;
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallPercentile;
+    private final long slowCallThresholdNanos;
+    private final long baseOpenNanos;
+    private final long maxOpenNanos;
+    private final int probeSuccessesRequired;
+    private final Semaphore probes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Ring buffer of the last calls, guarded by lock
+    private final long[] latencies;
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private long openNanos;
+    private int probeSuccesses;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder openings = new LongAdder();
+
+    public IntrospectionCircuitBreaker(boolean enabled, int windowSize, int minimumCalls,
+                                       double failureRateThreshold, double slowCallPercentile,
+                                       long slowCallThresholdMs, long openDurationMs, long maxOpenDurationMs,
+                                       int probeConcurrency, int probeSuccesses) {
+        this(enabled, windowSize, minimumCalls, failureRateThreshold, slowCallPercentile, slowCallThresholdMs,
+            openDurationMs, maxOpenDurationMs, probeConcurrency, probeSuccesses, NanoClock.SYSTEM);
+    }
+
+    IntrospectionCircuitBreaker(boolean enabled, int windowSize, int minimumCalls,
+                                double failureRateThreshold, double slowCallPercentile,
+                                long slowCallThresholdMs, long openDurationMs, long maxOpenDurationMs,
+                                int probeConcurrency, int probeSuccesses, NanoClock clock) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallPercentile = slowCallPercentile;
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+        this.baseOpenNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(openDurationMs, maxOpenDurationMs));
+        this.probeSuccessesRequired = probeSuccesses;
+        this.probes = new Semaphore(probeConcurrency);
+        this.latencies = new long[windowSize];
+        this.failed = new boolean[windowSize];
+        this.openNanos = baseOpenNanos;
+    }
+
+    /**
+     * A breaker that never opens.
+     */
+    public static IntrospectionCircuitBreaker disabled() {
+        return new IntrospectionCircuitBreaker(false, 1, 1, 1.0, 100, 0, 0, 0, 1, 1);
+    }
+
+    /**
+     * Runs the introspection if the circuit allows it and records the outcome.
+     *
+     * @throws IntrospectionUnavailableException if the circuit is open or all probe slots are taken
+     */
+    public <T> T call(Supplier<T> introspection) {
+        if (!enabled) {
+            return introspection.get();
+        }
+        return callPermitted(acquirePermission(), introspection);
+    }
+
+    /**
+     * Runs a call already permitted by {@link #acquirePermission()} and records its outcome. Lets
+     * a caller check the circuit before other work, such as waiting for a rate limit, that should
+     * not count towards the call's latency.
+     */
+    public <T> T callPermitted(boolean probe, Supplier<T> introspection) {
+        if (!enabled) {
+            return introspection.get();
+        }
+        long start = clock.nanoTime();
+        Throwable failure = null;
+        try {
+            return introspection.get();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            onComplete(probe, clock.nanoTime() - start, failure);
+        }
+    }
+
+    /**
+     * For asynchronous callers: checks the circuit before a call and returns whether the call is
+     * a half-open probe. A permitted call must be reported with {@link #onComplete} or {@link #onCancel}.
+     *
+     * @throws IntrospectionUnavailableException if the circuit is open or all probe slots are taken
+     */
+    public boolean acquirePermission() {
+        return enabled && acquire();
+    }
+
+    /**
+     * Records the outcome of a permitted call; failure is null for a success.
+     */
+    public void onComplete(boolean probe, long nanos, Throwable failure) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            onResult(probe, nanos, failure != null && !(failure instanceof BadOpaqueTokenException));
+        } finally {
+            if (probe) {
+                probes.release();
+            }
+        }
+    }
+
+    /**
+     * Releases a permitted call that was abandoned before it finished, without recording it.
+     */
+    public void onCancel(boolean probe) {
+        if (enabled && probe) {
+            probes.release();
+        }
+    }
+
+    /**
+     * Returns whether the call is a half-open probe; throws if it may not run at all.
+     */
+    private boolean acquire() {
+        lock.lock();
+        try {
+            if (state == State.CLOSED) {
+                return false;
+            }
+            if (state == State.OPEN) {
+                long remaining = openUntil - clock.nanoTime();
+                if (remaining > 0) {
+                    rejected.increment();
+                    throw new IntrospectionUnavailableException("Identity provider circuit is open",
+                        TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+                }
+                state = State.HALF_OPEN;
+                probeSuccesses = 0;
+                log.info("Introspection circuit half-open, probing");
+            }
+            if (!probes.tryAcquire()) {
+                rejected.increment();
+                throw new IntrospectionUnavailableException("Identity provider circuit is half-open, probes in flight");
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onResult(boolean probe, long nanos, boolean failure) {
+        lock.lock();
+        try {
+            onResultLocked(probe, nanos, failure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onResultLocked(boolean probe, long nanos, boolean failure) {
+        boolean slow = nanos >= slowCallThresholdNanos;
+        if (probe) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failure || slow) {
+                open(Math.min(openNanos * 2, maxOpenNanos));
+            } else if (++probeSuccesses >= probeSuccessesRequired) {
+                close();
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            // Started before the circuit opened
+            return;
+        }
+
+        if (recorded == latencies.length) {
+            failureCount -= failed[next] ? 1 : 0;
+            slowCount -= latencies[next] >= slowCallThresholdNanos ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        latencies[next] = nanos;
+        failed[next] = failure;
+        failureCount += failure ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % latencies.length;
+
+        if (recorded >= minimumCalls && (failureRate() >= failureRateThreshold || slowPercentileExceeded())) {
+            open(baseOpenNanos);
+        }
+    }
+
+    /**
+     * The latency at slowCallPercentile (nearest rank) is at or above the threshold exactly when
+     * fewer than rank calls were faster than the threshold, so no sorting is needed.
+     */
+    private boolean slowPercentileExceeded() {
+        long rank = (long) Math.ceil(recorded * slowCallPercentile / 100.0);
+        return recorded - slowCount < rank;
+    }
+
+    private double failureRate() {
+        return recorded == 0 ? 0 : (double) failureCount / recorded;
+    }
+
+    private void open(long duration) {
+        state = State.OPEN;
+        openNanos = duration;
+        openUntil = clock.nanoTime() + duration;
+        openings.increment();
+        log.warn("Introspection circuit opened for {} ms (failure rate {}, p{} >= {} ms: {})",
+            TimeUnit.NANOSECONDS.toMillis(duration), String.format("%.2f", failureRate()), slowCallPercentile,
+            TimeUnit.NANOSECONDS.toMillis(slowCallThresholdNanos), recorded > 0 && slowPercentileExceeded());
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        openNanos = baseOpenNanos;
+        next = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCount = 0;
+        log.info("Introspection circuit closed");
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        lock.lock();
+        try {
+            long[] window = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(window);
+            long percentileNanos = recorded == 0 ? 0
+                : window[(int) Math.max(0, Math.ceil(recorded * slowCallPercentile / 100.0) - 1)];
+
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("enabled", enabled);
+            snapshot.put("state", state.name());
+            snapshot.put("windowCalls", recorded);
+            snapshot.put("failureRate", failureRate());
+            snapshot.put("latencyPercentile", slowCallPercentile);
+            snapshot.put("latencyPercentileMs", TimeUnit.NANOSECONDS.toMillis(percentileNanos));
+            snapshot.put("openDurationMs", TimeUnit.NANOSECONDS.toMillis(openNanos));
+            snapshot.put("openings", openings.sum());
+            snapshot.put("rejected", rejected.sum());
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
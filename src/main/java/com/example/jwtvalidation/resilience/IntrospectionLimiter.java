@@ -0,0 +1,388 @@
+package com.example.jwtvalidation.resilience;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.nimbusds.jose.util.JSONObjectUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits outbound introspection calls from this replica: a token bucket for the rate, a
+ * semaphore bulkhead for concurrency, and optional per-client quotas.
+ *
+ * Per-client quotas keep one noisy caller from using up the replica's whole introspection budget;
+ * the global limits still cap the total. By default (client-key REMOTE_ADDRESS) the caller is the
+ * remote address of the request, which the server can trust. With client-key AZP the caller is the
+ * 'azp' claim read from the unverified token payload, so a client can claim any name: only the
+ * clients listed in client-quotas get a bucket of their own, every other value shares one bucket
+ * at the default rate, so a forged 'azp' neither escapes a quota nor creates new buckets.
+ *
+ * Policy QUEUE waits up to max-wait for a token and a concurrency slot; REJECT fails at once.
+ * Either way a call that gets no capacity fails with {@link IntrospectionUnavailableException}.
+ * Reactive callers use {@link #admit(String, String)}/{@link #release()} instead of blocking: the rate
+ * wait becomes a delay before the call, and a full bulkhead rejects at once.
+ */
+public class IntrospectionLimiter {
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+    private static final String OTHER_CLIENTS = "*";
+
+    /**
+     * What a per-client quota is keyed on.
+     */
+    public enum ClientKey {
+        /** The remote address of the request being authenticated. */
+        REMOTE_ADDRESS,
+        /** The unverified 'azp' claim; only clients listed in client-quotas are told apart. */
+        AZP
+    }
+
+    /**
+     * Token bucket refilled continuously. A reservation may take the balance negative; the
+     * caller then waits until its token has been refilled. Guarded by a ReentrantLock so that
+     * contending virtual threads park instead of pinning their carriers.
+     */
+    static final class TokenBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NanoClock clock;
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double ratePerSecond, double capacity, NanoClock clock) {
+            this.clock = clock;
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.refilledAt = clock.nanoTime();
+        }
+
+        /**
+         * Takes a token and returns the nanos to wait for it, or -1 (nothing taken) if that exceeds maxWait.
+         */
+        long reserve(long maxWaitNanos) {
+            lock.lock();
+            try {
+                long now = clock.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+                long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+                if (wait > maxWaitNanos) {
+                    return -1;
+                }
+                tokens -= 1;
+                return wait;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void refund() {
+            lock.lock();
+            try {
+                tokens = Math.min(capacity, tokens + 1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        double available() {
+            lock.lock();
+            try {
+                return Math.min(capacity, tokens + (clock.nanoTime() - refilledAt) * tokensPerNano);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final NanoClock clock;
+    private final boolean enabled;
+    private final ClientKey clientKey;
+    private final TokenBucket globalBucket;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final double defaultClientRate;
+    private final Map<String, Double> clientQuotas;
+    private final Cache<String, TokenBucket> clientBuckets = CacheBuilder.newBuilder()
+        .maximumSize(1000)
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .build();
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder queuedNanos = new LongAdder();
+    private final LongAdder rejectedRate = new LongAdder();
+    private final LongAdder rejectedClientQuota = new LongAdder();
+    private final LongAdder rejectedConcurrency = new LongAdder();
+
+    /**
+     * @param clientKey    REMOTE_ADDRESS or AZP, see {@link ClientKey}
+     * @param clientQuotas per-client rates as "client=rate,other=rate"; clients not listed get defaultClientRate (0 = no quota)
+     */
+    public IntrospectionLimiter(boolean enabled, double ratePerSecond, int burst, int maxConcurrent,
+                                String policy, long maxWaitMs, String clientKey,
+                                double defaultClientRate, String clientQuotas) {
+        this(enabled, ratePerSecond, burst, maxConcurrent, policy, maxWaitMs, clientKey, defaultClientRate,
+            clientQuotas, NanoClock.SYSTEM);
+    }
+
+    IntrospectionLimiter(boolean enabled, double ratePerSecond, int burst, int maxConcurrent,
+                         String policy, long maxWaitMs, String clientKey,
+                         double defaultClientRate, String clientQuotas, NanoClock clock) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.clientKey = ClientKey.valueOf(clientKey.trim().toUpperCase());
+        this.globalBucket = new TokenBucket(ratePerSecond, burst, clock);
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = "REJECT".equalsIgnoreCase(policy) ? 0 : TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.defaultClientRate = defaultClientRate;
+        this.clientQuotas = parseQuotas(clientQuotas);
+    }
+
+    /**
+     * A limiter that lets everything through.
+     */
+    public static IntrospectionLimiter unlimited() {
+        return new IntrospectionLimiter(false, 1, 1, 1, "REJECT", 0, "REMOTE_ADDRESS", 0, "");
+    }
+
+    /**
+     * Runs the introspection of a token once there is capacity for it.
+     *
+     * @param remoteAddress the caller's address (see {@link CallingClient}), null for calls made
+     *                      outside a request, which are then only held to the global limits
+     * @throws IntrospectionUnavailableException if no capacity was available within the policy's wait
+     */
+    public <T> T call(String token, String remoteAddress, Supplier<T> introspection) {
+        if (!enabled) {
+            return introspection.get();
+        }
+        long deadline = clock.nanoTime() + maxWaitNanos;
+
+        TokenBucket clientBucket = clientBucket(token, remoteAddress);
+        if (clientBucket != null && !await(clientBucket, clientBucket.reserve(maxWaitNanos))) {
+            throw rejection(rejectedClientQuota, "Introspection quota exceeded for client");
+        }
+        if (!await(globalBucket, globalBucket.reserve(Math.max(0, deadline - clock.nanoTime())))) {
+            if (clientBucket != null) {
+                clientBucket.refund();
+            }
+            throw rejection(rejectedRate, "Introspection rate limit exceeded");
+        }
+        if (!acquireSlot(deadline)) {
+            globalBucket.refund();
+            if (clientBucket != null) {
+                clientBucket.refund();
+            }
+            throw rejection(rejectedConcurrency, "Too many concurrent introspection calls");
+        }
+        try {
+            permitted.increment();
+            return introspection.get();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Non-blocking admission for reactive callers. Takes the rate tokens and a concurrency slot
+     * without waiting and returns the nanos to delay the call by until its rate tokens have been
+     * refilled (at most max-wait). A full bulkhead is not waited for. The caller must call
+     * {@link #release()} once the call has finished or was abandoned.
+     *
+     * @throws IntrospectionUnavailableException if there is no capacity
+     */
+    public long admit(String token, String remoteAddress) {
+        if (!enabled) {
+            return 0;
+        }
+        TokenBucket clientBucket = clientBucket(token, remoteAddress);
+        long clientWait = clientBucket != null ? clientBucket.reserve(maxWaitNanos) : 0;
+        if (clientWait < 0) {
+            rejectedClientQuota.increment();
+            throw new IntrospectionUnavailableException("Introspection quota exceeded for client");
+        }
+        long globalWait = globalBucket.reserve(maxWaitNanos);
+        if (globalWait < 0) {
+            if (clientBucket != null) {
+                clientBucket.refund();
+            }
+            rejectedRate.increment();
+            throw new IntrospectionUnavailableException("Introspection rate limit exceeded");
+        }
+        if (!bulkhead.tryAcquire()) {
+            globalBucket.refund();
+            if (clientBucket != null) {
+                clientBucket.refund();
+            }
+            rejectedConcurrency.increment();
+            throw new IntrospectionUnavailableException("Too many concurrent introspection calls");
+        }
+        permitted.increment();
+        // Both reservations were taken now, so the later of the two refills is the delay
+        long wait = Math.max(clientWait, globalWait);
+        if (wait > 0) {
+            queued.increment();
+            queuedNanos.add(wait);
+        }
+        return wait;
+    }
+
+    /**
+     * Returns the concurrency slot taken by {@link #admit(String, String)}.
+     */
+    public void release() {
+        if (enabled) {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Waits for a token reserved from the bucket, parking again after an early wakeup until the
+     * reservation is due. Returns false if the reservation failed, or if the thread was
+     * interrupted: the token is then given back and the interrupt flag stays set.
+     */
+    private boolean await(TokenBucket bucket, long waitNanos) {
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            queued.increment();
+            queuedNanos.add(waitNanos);
+            long due = clock.nanoTime() + waitNanos;
+            for (long remaining = waitNanos; remaining > 0; remaining = due - clock.nanoTime()) {
+                clock.parkNanos(remaining);
+                if (Thread.currentThread().isInterrupted()) {
+                    bucket.refund();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The exception for a call that got no capacity. A call cut short by an interrupt is not
+     * counted as a rejection.
+     */
+    private static IntrospectionUnavailableException rejection(LongAdder counter, String message) {
+        if (Thread.currentThread().isInterrupted()) {
+            return new IntrospectionUnavailableException("Interrupted while waiting for introspection capacity");
+        }
+        counter.increment();
+        return new IntrospectionUnavailableException(message);
+    }
+
+    private boolean acquireSlot(long deadline) {
+        if (bulkhead.tryAcquire()) {
+            return true;
+        }
+        long remaining = deadline - clock.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        queued.increment();
+        long start = clock.nanoTime();
+        try {
+            return bulkhead.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queuedNanos.add(clock.nanoTime() - start);
+        }
+    }
+
+    private TokenBucket clientBucket(String token, String remoteAddress) {
+        if (clientQuotas.isEmpty() && defaultClientRate <= 0) {
+            return null;
+        }
+        String client = clientKey == ClientKey.AZP ? listedClientOf(token) : remoteAddress;
+        if (client == null) {
+            return null;
+        }
+        double rate = clientQuotas.getOrDefault(client, defaultClientRate);
+        if (rate <= 0) {
+            return null;
+        }
+        try {
+            return clientBuckets.get(client, () -> new TokenBucket(rate, Math.max(1, rate), clock));
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The token's client if it is listed in client-quotas, otherwise the bucket shared by all
+     * other clients - the claim is unverified, so unlisted values must not get buckets of their own.
+     */
+    private String listedClientOf(String token) {
+        String client = clientOf(token);
+        return clientQuotas.containsKey(client) ? client : OTHER_CLIENTS;
+    }
+
+    /**
+     * The 'azp' (or 'client_id') claim of a JWT's unverified payload, "unknown" for anything else.
+     */
+    static String clientOf(String token) {
+        int start = token.indexOf('.') + 1;
+        int end = start > 0 ? token.indexOf('.', start) : -1;
+        if (end < 0) {
+            return UNKNOWN_CLIENT;
+        }
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token.substring(start, end)), StandardCharsets.UTF_8);
+            Map<String, Object> claims = JSONObjectUtils.parse(json);
+            Object client = claims.get("azp") != null ? claims.get("azp") : claims.get("client_id");
+            return client != null ? client.toString() : UNKNOWN_CLIENT;
+        } catch (IllegalArgumentException | ParseException e) {
+            return UNKNOWN_CLIENT;
+        }
+    }
+
+    private static Map<String, Double> parseQuotas(String quotas) {
+        Map<String, Double> parsed = new HashMap<>();
+        if (quotas == null || quotas.isBlank()) {
+            return parsed;
+        }
+        for (String entry : quotas.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Client quota must be client=rate: " + entry);
+            }
+            parsed.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return parsed;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("clientKey", clientKey.name());
+        snapshot.put("permitted", permitted.sum());
+        snapshot.put("queued", queued.sum());
+        snapshot.put("queuedMillis", TimeUnit.NANOSECONDS.toMillis(queuedNanos.sum()));
+        snapshot.put("rejectedRate", rejectedRate.sum());
+        snapshot.put("rejectedClientQuota", rejectedClientQuota.sum());
+        snapshot.put("rejectedConcurrency", rejectedConcurrency.sum());
+        snapshot.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        snapshot.put("availableTokens", (long) globalBucket.available());
+        snapshot.put("trackedClients", clientBuckets.size());
+        return snapshot;
+    }
+}
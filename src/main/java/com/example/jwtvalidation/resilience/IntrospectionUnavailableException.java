@@ -0,0 +1,44 @@
+package com.example.jwtvalidation.resilience;
+
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+
+/**
+ * Introspection was not attempted because the identity provider is considered unavailable
+ * (circuit open, or no capacity left to call it). Says nothing about the token itself.
+ *
+ * Answered with 503 and a Retry-After of {@link #getRetryAfterSeconds()}.
+ */
+public class IntrospectionUnavailableException extends OAuth2IntrospectionException {
+
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 1;
+
+    private final long retryAfterSeconds;
+
+    public IntrospectionUnavailableException(String message) {
+        this(message, DEFAULT_RETRY_AFTER_SECONDS);
+    }
+
+    public IntrospectionUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    /**
+     * Seconds after which a retry may succeed, at least 1.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * The exception itself or the first one in the cause chain, null if there is none.
+     */
+    public static IntrospectionUnavailableException find(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IntrospectionUnavailableException unavailable) {
+                return unavailable;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.jwtvalidation.resilience;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Monotonic time of the limiter and circuit breaker, and the limiter's wait for a reserved
+ * token. Tests substitute a clock they advance by hand.
+ */
+interface NanoClock {
+
+    NanoClock SYSTEM = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void parkNanos(long nanos) {
+            LockSupport.parkNanos(nanos);
+        }
+    };
+
+    long nanoTime();
+
+    /**
+     * Parks the current thread for up to the given time. May return early.
+     */
+    void parkNanos(long nanos);
+}
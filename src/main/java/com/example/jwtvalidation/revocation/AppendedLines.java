@@ -0,0 +1,90 @@
+package com.example.jwtvalidation.revocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Follows a file that other processes append lines to, handing out each complete line once.
+ *
+ * Only lines terminated by '\n' are consumed. A last line still being written is left in the
+ * file and read again, whole, on a later call; the offset never moves past it. Lines are
+ * decoded as UTF-8, and a trailing '\r' is dropped. If the file shrinks (rotated or truncated)
+ * it is read again from the start.
+ *
+ * Not thread-safe; each follower is polled from one thread.
+ */
+public final class AppendedLines {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path path;
+    private long offset;
+
+    public AppendedLines(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Skips everything written so far; the next read starts at the current end of the file.
+     */
+    public void skipToEnd() throws IOException {
+        offset = Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Passes each complete line appended since the last call to the consumer, in order.
+     * A missing file reads as empty.
+     */
+    public void read(Consumer<String> consumer) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        try (channel) {
+            if (channel.size() < offset) {
+                offset = 0;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = offset;
+            int read;
+            while ((read = channel.read(buffer, position)) > 0) {
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '\n') {
+                        consumer.accept(decode(line));
+                        line.reset();
+                        offset = position + i + 1;
+                    } else {
+                        line.write(bytes[i]);
+                    }
+                }
+                position += read;
+                buffer.clear();
+            }
+        }
+    }
+
+    private static String decode(ByteArrayOutputStream line) {
+        String decoded = line.toString(StandardCharsets.UTF_8);
+        return decoded.endsWith("\r") ? decoded.substring(0, decoded.length() - 1) : decoded;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.jwtvalidation.revocation;
+
+import com.example.jwtvalidation.model.RevocationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the {@link RevocationIndex} from a file of revocation events, one JSON object per line.
+ *
+ * The file is polled and only complete lines appended since the last poll are read, so an event
+ * listener or log shipper can simply append to it; a line caught half-written is read on the
+ * next poll. If the file shrinks (rotated or truncated) it is read again from the start.
+ * Disabled unless a feed file is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+public class RevocationFeedTailer {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationFeedTailer.class);
+
+    private final RevocationIndex revocationIndex;
+    private final ObjectMapper objectMapper;
+    private final String feedFile;
+    private final long pollIntervalMs;
+    private final AppendedLines feed;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RevocationFeedTailer(
+            RevocationIndex revocationIndex,
+            ObjectMapper objectMapper,
+            @Value("${app.security.hybrid.revocation.feed-file:}") String feedFile,
+            @Value("${app.security.hybrid.revocation.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.revocationIndex = revocationIndex;
+        this.objectMapper = objectMapper;
+        this.feedFile = feedFile;
+        this.pollIntervalMs = pollIntervalMs;
+        this.feed = feedFile == null || feedFile.isBlank() ? null : new AppendedLines(Path.of(feedFile));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (feed == null) {
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private void poll() {
+        try {
+            feed.read(this::ingest);
+        } catch (IOException e) {
+            log.warn("Failed to read revocation feed {}: {}", feedFile, e.getMessage());
+        }
+    }
+
+    private void ingest(String line) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            revocationIndex.revoke(objectMapper.readValue(line, RevocationEvent.class));
+        } catch (IOException e) {
+            log.warn("Skipping malformed revocation event: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.jwtvalidation.revocation;
+
+import com.example.jwtvalidation.model.RevocationEvent;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local index of revoked tokens, sessions and subjects for HYBRID mode.
+ *
+ * Lookups go to a Bloom filter first, so the common case - a token nobody revoked - costs a
+ * few hashes and no map lookup. A filter hit is confirmed against the exact entries. Entries
+ * are dropped once the tokens they cover have expired; since a Bloom filter cannot forget,
+ * it is rebuilt from the live entries on every purge.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+public class RevocationIndex {
+
+    /**
+     * @param revokedAt tokens issued at or before this are revoked (subject entries only)
+     * @param expiresAt the entry is dropped after this
+     */
+    private record Entry(long revokedAt, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final long defaultTtlSeconds;
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile BloomFilter<CharSequence> filter;
+
+    public RevocationIndex(
+            @Value("${app.security.hybrid.revocation.expected-entries:100000}") int expectedInsertions,
+            @Value("${app.security.hybrid.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${app.security.hybrid.revocation.default-ttl-seconds:3600}") long defaultTtlSeconds,
+            @Value("${app.security.hybrid.revocation.purge-interval-seconds:60}") long purgeIntervalSeconds) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.filter = newFilter();
+        purger.scheduleWithFixedDelay(this::purge, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Records a revocation. Unknown types are ignored.
+     */
+    public void revoke(RevocationEvent event) {
+        String key = key(event.getType(), event.getValue());
+        if (key == null) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        long revokedAt = event.getRevokedAt() != null ? event.getRevokedAt() : now;
+        long expiresAt = event.getExp() != null ? event.getExp() : now + defaultTtlSeconds;
+        if (expiresAt <= now) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            entries.merge(key, new Entry(revokedAt, expiresAt), (existing, added) -> new Entry(
+                Math.max(existing.revokedAt(), added.revokedAt()),
+                Math.max(existing.expiresAt(), added.expiresAt())));
+            filter.put(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Whether a token with these claims has been revoked. Any argument may be null.
+     */
+    public boolean isRevoked(String jti, String sid, String subject, Instant issuedAt) {
+        BloomFilter<CharSequence> current = filter;
+        long now = Instant.now().getEpochSecond();
+        return matches(current, key("jti", jti), now, null)
+            || matches(current, key("sid", sid), now, null)
+            || matches(current, key("sub", subject), now, issuedAt);
+    }
+
+    private boolean matches(BloomFilter<CharSequence> current, String key, long now, Instant issuedAt) {
+        if (key == null || !current.mightContain(key)) {
+            return false;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= now) {
+            return false;
+        }
+        // A subject revocation only covers tokens issued up to the revocation
+        return issuedAt == null || issuedAt.getEpochSecond() <= entry.revokedAt();
+    }
+
+    /**
+     * Drops expired entries and rebuilds the filter from the remaining ones.
+     */
+    void purge() {
+        long now = Instant.now().getEpochSecond();
+        writeLock.lock();
+        try {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+            BloomFilter<CharSequence> rebuilt = newFilter();
+            entries.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private BloomFilter<CharSequence> newFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+    }
+
+    private static String key(String type, String value) {
+        if (type == null || value == null || value.isEmpty()) {
+            return null;
+        }
+        return switch (type) {
+            case "jti", "sid", "sub" -> type + ':' + value;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.authorization.RoleBits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps role and scope claims to Spring Security authorities.
+ *
+ * Users share a small number of role combinations, so the immutable authority collection for
+ * each combination is built once and returned on every later request with the same roles.
+ * Authority instances are interned, so ROLE_USER is the same object in every collection.
+ * A cache hit allocates nothing beyond the lookup itself. Interned authorities carry their
+ * {@link RoleBits} bit, so authorization ORs a few fields instead of comparing names.
+ *
+ * Supported claim layouts:
+ * - 'roles': ["user", "admin"]
+ * - 'realm_access': {"roles": [...]} (Keycloak)
+ * - 'scope': "openid profile" (space-separated, mapped as-is)
+ *
+ * Roles map to "ROLE_" + upper-cased role. Both caches are bounded; combinations beyond
+ * the bound are mapped without caching.
+ */
+@Component
+public class AuthorityMapper {
+
+    private static final int MAX_CACHED_COMBINATIONS = 1024;
+    private static final int MAX_INTERNED_AUTHORITIES = 4096;
+
+    private record RolesAndScope(List<?> roles, String scope) {
+    }
+
+    private final RoleBits roleBits;
+    private final Map<String, GrantedAuthority> interned = new ConcurrentHashMap<>();
+    private final Map<List<?>, Collection<GrantedAuthority>> byRoles = new ConcurrentHashMap<>();
+    private final Map<RolesAndScope, Collection<GrantedAuthority>> byRolesAndScope = new ConcurrentHashMap<>();
+    private final Map<List<?>, Collection<GrantedAuthority>> byNames = new ConcurrentHashMap<>();
+
+    public AuthorityMapper() {
+        this(RoleBits.defaults());
+    }
+
+    @Autowired
+    public AuthorityMapper(RoleBits roleBits) {
+        this.roleBits = roleBits;
+    }
+
+    /**
+     * Authorities for a 'roles'-style claim value (a list of role names).
+     */
+    public Collection<GrantedAuthority> fromRoles(Object roles) {
+        if (!(roles instanceof List<?> roleList) || roleList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Collection<GrantedAuthority> cached = byRoles.get(roleList);
+        if (cached != null) {
+            return cached;
+        }
+        Collection<GrantedAuthority> authorities = List.copyOf(mapRoles(roleList, new ArrayList<>()));
+        if (byRoles.size() < MAX_CACHED_COMBINATIONS) {
+            byRoles.putIfAbsent(snapshot(roleList), authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * Authorities from 'realm_access.roles', falling back to the 'roles' claim.
+     */
+    public Collection<GrantedAuthority> fromRealmAccessOrRoles(Map<String, Object> claims) {
+        if (claims.get("realm_access") instanceof Map<?, ?> realmAccess && realmAccess.get("roles") != null) {
+            return fromRoles(realmAccess.get("roles"));
+        }
+        return fromRoles(claims.get("roles"));
+    }
+
+    /**
+     * Authorities from a 'roles' claim value plus the values of a space-separated 'scope' claim.
+     */
+    public Collection<GrantedAuthority> fromRolesAndScope(Object roles, String scope) {
+        if (scope == null || scope.isBlank()) {
+            return fromRoles(roles);
+        }
+        List<?> roleList = roles instanceof List<?> list ? list : List.of();
+        RolesAndScope key = new RolesAndScope(roleList, scope);
+        Collection<GrantedAuthority> cached = byRolesAndScope.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> authorities = mapRoles(roleList, new ArrayList<>());
+        for (String value : scope.split(" ")) {
+            if (!value.isEmpty()) {
+                authorities.add(intern(value));
+            }
+        }
+        Collection<GrantedAuthority> result = List.copyOf(authorities);
+        if (byRolesAndScope.size() < MAX_CACHED_COMBINATIONS) {
+            byRolesAndScope.putIfAbsent(new RolesAndScope(snapshot(roleList), scope), result);
+        }
+        return result;
+    }
+
+    /**
+     * Authorities for names that are already mapped (e.g. "ROLE_USER" from a shared cache entry).
+     */
+    public Collection<GrantedAuthority> fromAuthorityNames(List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Collection<GrantedAuthority> cached = byNames.get(names);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name != null) {
+                authorities.add(intern(name));
+            }
+        }
+        Collection<GrantedAuthority> result = List.copyOf(authorities);
+        if (byNames.size() < MAX_CACHED_COMBINATIONS) {
+            byNames.putIfAbsent(snapshot(names), result);
+        }
+        return result;
+    }
+
+    private List<GrantedAuthority> mapRoles(List<?> roles, List<GrantedAuthority> into) {
+        for (Object role : roles) {
+            if (role != null) {
+                into.add(intern("ROLE_" + role.toString().toUpperCase()));
+            }
+        }
+        return into;
+    }
+
+    /**
+     * Immutable copy of a claim list for use as a cache key (claim lists may contain nulls).
+     */
+    private static List<?> snapshot(List<?> roles) {
+        return Collections.unmodifiableList(new ArrayList<>(roles));
+    }
+
+    private GrantedAuthority intern(String authority) {
+        GrantedAuthority existing = interned.get(authority);
+        if (existing != null) {
+            return existing;
+        }
+        GrantedAuthority created = roleBits.authority(authority);
+        if (interned.size() >= MAX_INTERNED_AUTHORITIES) {
+            return created;
+        }
+        existing = interned.putIfAbsent(authority, created);
+        return existing != null ? existing : created;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.jwtvalidation.service;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+
+import java.time.Instant;
+
+/**
+ * A verified principal held in the token cache.
+ *
+ * The principal is built once, when the token is first validated, so a cache hit
+ * only has to compare the token's own expiry against the current time.
+ */
+public final class CachedPrincipal {
+
+    private final OAuth2AuthenticatedPrincipal principal;
+    private final Instant expiresAt;
+
+    public CachedPrincipal(OAuth2AuthenticatedPrincipal principal, Instant expiresAt) {
+        this.principal = principal;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a cache entry using the 'exp' attribute of the principal.
+     * Handles both Instant (Spring introspector) and epoch seconds (raw introspection response).
+     */
+    public static CachedPrincipal of(OAuth2AuthenticatedPrincipal principal) {
+        Object exp = principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
+        Instant expiresAt = null;
+        if (exp instanceof Instant instant) {
+            expiresAt = instant;
+        } else if (exp instanceof Number number) {
+            expiresAt = Instant.ofEpochSecond(number.longValue());
+        }
+        return new CachedPrincipal(principal, expiresAt);
+    }
+
+    public OAuth2AuthenticatedPrincipal getPrincipal() {
+        return principal;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Tokens without an 'exp' claim are bounded by the cache expiry only.
+     */
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -1,51 +1,156 @@
 package com.example.jwtvalidation.service;
 
+import com.example.jwtvalidation.cache.RejectedTokenCache;
+import com.example.jwtvalidation.cache.RejectionReason;
+import com.example.jwtvalidation.cache.SingleFlight;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.CallingClient;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Custom implementation of OpaqueTokenIntrospector for remote token validation.
  * This calls Keycloak's introspection endpoint to validate tokens.
+ *
+ * Results can optionally be cached (app.security.introspection.cache.enabled). A cached
+ * result lives for the shorter of the revocation-tolerance window and the token's 'exp',
+ * so a revoked token is honoured at most revocation-tolerance-seconds late.
+ *
+ * Calls to Keycloak go through the {@link IntrospectionLimiter}; without capacity the call
+ * fails with an IntrospectionUnavailableException (503) instead of piling onto the IdP.
  */
 @Component
 @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "REMOTE")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
 
     private final RestTemplate restTemplate;
+    private final AuthorityMapper authorityMapper;
+    private final ValidationMetrics metrics;
+    private final IntrospectionLimiter limiter;
     private final String introspectionUri;
     private final String clientId;
     private final String clientSecret;
+    private final SingleFlight<TokenKey, OAuth2AuthenticatedPrincipal> inFlight = new SingleFlight<>();
+    private final RejectedTokenCache rejectedTokens;
+    private final Cache<TokenKey, CachedPrincipal> resultCache;
 
     @Autowired
     public CustomOpaqueTokenIntrospector(
             RestTemplate restTemplate,
+            AuthorityMapper authorityMapper,
+            ValidationMetrics metrics,
+            IntrospectionLimiter limiter,
             @Value("${spring.security.oauth2.resourceserver.opaquetoken.introspection-uri}") String introspectionUri,
             @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-id}") String clientId,
-            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-secret}") String clientSecret) {
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-secret}") String clientSecret,
+            @Value("${app.security.negative-cache.ttl-seconds:30}") long negativeCacheTtl,
+            @Value("${app.security.negative-cache.maximum-size:10000}") long negativeCacheSize,
+            @Value("${app.security.introspection.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${app.security.introspection.cache.revocation-tolerance-seconds:30}") long revocationTolerance,
+            @Value("${app.security.introspection.cache.maximum-size:10000}") long cacheSize) {
         this.restTemplate = restTemplate;
+        this.authorityMapper = authorityMapper;
+        this.metrics = metrics;
+        this.limiter = limiter;
         this.introspectionUri = introspectionUri;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
+        this.rejectedTokens = new RejectedTokenCache(negativeCacheTtl, negativeCacheSize);
+        this.resultCache = cacheEnabled
+            ? CacheBuilder.newBuilder()
+                .expireAfterWrite(revocationTolerance, TimeUnit.SECONDS)
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build()
+            : null;
+        if (resultCache != null) {
+            metrics.registerCache("introspection.results", resultCache);
+        }
+        metrics.registerCache("introspection.rejected", rejectedTokens::stats, rejectedTokens::size);
     }
 
+    /**
+     * Introspects a token.
+     * Concurrent calls for the same token share one request to Keycloak,
+     * and all of them see the same result or failure.
+     * Tokens Keycloak recently reported as inactive are rejected without a call.
+     */
     @Override
     public OAuth2AuthenticatedPrincipal introspect(String token) {
+        TokenKey key = TokenKey.of(token);
+        if (resultCache != null) {
+            CachedPrincipal cached = resultCache.getIfPresent(key);
+            if (cached != null) {
+                if (!cached.isExpired(Instant.now())) {
+                    return cached.getPrincipal();
+                }
+                resultCache.invalidate(key);
+            }
+        }
+        if (rejectedTokens.getIfRejected(key) != null) {
+            throw new BadOpaqueTokenException("Token is not active");
+        }
+        try {
+            return inFlight.execute(key, () -> {
+                OAuth2AuthenticatedPrincipal principal = limiter.call(token, CallingClient.remoteAddress(),
+                    () -> introspectRemotely(token));
+                if (resultCache != null) {
+                    resultCache.put(key, CachedPrincipal.of(principal));
+                }
+                return principal;
+            });
+        } catch (BadOpaqueTokenException e) {
+            rejectedTokens.reject(key, RejectionReason.INACTIVE);
+            throw e;
+        }
+    }
+
+    /**
+     * Recently rejected tokens, answered without a call to Keycloak.
+     */
+    public RejectedTokenCache getRejectedTokens() {
+        return rejectedTokens;
+    }
+
+    /**
+     * Hit/miss/eviction statistics of the result cache, or null if caching is disabled.
+     */
+    public CacheStats getCacheStats() {
+        return resultCache != null ? resultCache.stats() : null;
+    }
+
+    /**
+     * Number of cached introspection results.
+     */
+    public long getCacheSize() {
+        return resultCache != null ? resultCache.size() : 0;
+    }
+
+    private OAuth2AuthenticatedPrincipal introspectRemotely(String token) {
         // Prepare request headers
         HttpHeaders headers = new HttpHeaders();
         headers.setBasicAuth(clientId, clientSecret);
@@ -57,6 +162,7 @@ public class CustomOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
 
         HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
 
+        long start = metrics.start();
         try {
             // Call Keycloak introspection endpoint
             ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
@@ -73,48 +179,26 @@ public class CustomOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
                 throw new BadOpaqueTokenException("Token is not active");
             }
 
+            metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+
             // Convert response to OAuth2AuthenticatedPrincipal
+            long mappingStart = metrics.start();
+            Collection<GrantedAuthority> authorities = authorityMapper.fromRealmAccessOrRoles(responseBody);
+            metrics.record(ValidationMetrics.Stage.AUTHORITY_MAPPING, mappingStart);
             return new DefaultOAuth2AuthenticatedPrincipal(
                 (String) responseBody.get("sub"),
                 responseBody,
-                extractAuthorities(responseBody)
+                authorities
             );
 
+        } catch (BadOpaqueTokenException e) {
+            metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+            throw e;
         } catch (Exception e) {
-            throw new BadOpaqueTokenException("Failed to introspect token: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Extracts authorities from the introspection response.
-     * Looks for roles in 'realm_access.roles' or 'roles' claim.
-     */
-    private Collection<GrantedAuthority> extractAuthorities(Map<String, Object> attributes) {
-        // Try realm_access.roles first
-        @SuppressWarnings("unchecked")
-        Map<String, Object> realmAccess = (Map<String, Object>) attributes.get("realm_access");
-
-        if (realmAccess != null) {
-            @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) realmAccess.get("roles");
-
-            if (roles != null) {
-                return roles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                    .collect(Collectors.toList());
-            }
+            // Transport or server failure - says nothing about the token itself
+            metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+            metrics.recordIntrospectionFailure(e);
+            throw new OAuth2IntrospectionException("Failed to introspect token: " + e.getMessage(), e);
         }
-
-        // Fallback to 'roles' claim
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) attributes.get("roles");
-
-        if (roles != null) {
-            return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                .collect(Collectors.toList());
-        }
-
-        return Collections.emptyList();
     }
 }
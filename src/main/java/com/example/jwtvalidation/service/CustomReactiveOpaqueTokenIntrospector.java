@@ -0,0 +1,199 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.ReactiveSingleFlight;
+import com.example.jwtvalidation.cache.RejectedTokenCache;
+import com.example.jwtvalidation.cache.RejectionReason;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.CallingClient;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of {@link CustomOpaqueTokenIntrospector} (REMOTE mode, reactive).
+ *
+ * Same result cache, negative cache and per-token call sharing; the call to Keycloak is a
+ * WebClient exchange, so a request waiting on the IdP holds no thread. The limiter admits calls
+ * without blocking: a rate wait becomes a delay before the call, a full bulkhead fails at once
+ * with an IntrospectionUnavailableException (503).
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "REMOTE")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CustomReactiveOpaqueTokenIntrospector implements ReactiveOpaqueTokenIntrospector {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE =
+        new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final AuthorityMapper authorityMapper;
+    private final ValidationMetrics metrics;
+    private final IntrospectionLimiter limiter;
+    private final String introspectionUri;
+    private final String clientId;
+    private final String clientSecret;
+    private final ReactiveSingleFlight<TokenKey, OAuth2AuthenticatedPrincipal> inFlight = new ReactiveSingleFlight<>();
+    private final RejectedTokenCache rejectedTokens;
+    private final Cache<TokenKey, CachedPrincipal> resultCache;
+
+    @Autowired
+    public CustomReactiveOpaqueTokenIntrospector(
+            WebClient introspectionWebClient,
+            AuthorityMapper authorityMapper,
+            ValidationMetrics metrics,
+            IntrospectionLimiter limiter,
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.introspection-uri}") String introspectionUri,
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-id}") String clientId,
+            @Value("${spring.security.oauth2.resourceserver.opaquetoken.client-secret}") String clientSecret,
+            @Value("${app.security.negative-cache.ttl-seconds:30}") long negativeCacheTtl,
+            @Value("${app.security.negative-cache.maximum-size:10000}") long negativeCacheSize,
+            @Value("${app.security.introspection.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${app.security.introspection.cache.revocation-tolerance-seconds:30}") long revocationTolerance,
+            @Value("${app.security.introspection.cache.maximum-size:10000}") long cacheSize) {
+        this.webClient = introspectionWebClient;
+        this.authorityMapper = authorityMapper;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.introspectionUri = introspectionUri;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.rejectedTokens = new RejectedTokenCache(negativeCacheTtl, negativeCacheSize);
+        this.resultCache = cacheEnabled
+            ? CacheBuilder.newBuilder()
+                .expireAfterWrite(revocationTolerance, TimeUnit.SECONDS)
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build()
+            : null;
+        if (resultCache != null) {
+            metrics.registerCache("introspection.results", resultCache);
+        }
+        metrics.registerCache("introspection.rejected", rejectedTokens::stats, rejectedTokens::size);
+    }
+
+    /**
+     * Introspects a token.
+     * Concurrent calls for the same token share one request to Keycloak,
+     * and all of them see the same result or failure.
+     * Tokens Keycloak recently reported as inactive are rejected without a call.
+     */
+    @Override
+    public Mono<OAuth2AuthenticatedPrincipal> introspect(String token) {
+        return Mono.defer(() -> {
+            TokenKey key = TokenKey.of(token);
+            if (resultCache != null) {
+                CachedPrincipal cached = resultCache.getIfPresent(key);
+                if (cached != null) {
+                    if (!cached.isExpired(Instant.now())) {
+                        return Mono.just(cached.getPrincipal());
+                    }
+                    resultCache.invalidate(key);
+                }
+            }
+            if (rejectedTokens.getIfRejected(key) != null) {
+                return Mono.error(new BadOpaqueTokenException("Token is not active"));
+            }
+            return inFlight.execute(key, () -> limited(token)
+                    .doOnNext(principal -> {
+                        if (resultCache != null) {
+                            resultCache.put(key, CachedPrincipal.of(principal));
+                        }
+                    }))
+                .doOnError(BadOpaqueTokenException.class, e -> rejectedTokens.reject(key, RejectionReason.INACTIVE));
+        });
+    }
+
+    /**
+     * The remote call, once the limiter has admitted it.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> limited(String token) {
+        return Mono.deferContextual(context -> {
+            long delayNanos = limiter.admit(token, CallingClient.remoteAddress(context));
+            Mono<OAuth2AuthenticatedPrincipal> call = introspectRemotely(token);
+            return (delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).then(call) : call)
+                .doFinally(signal -> limiter.release());
+        });
+    }
+
+    /**
+     * Recently rejected tokens, answered without a call to Keycloak.
+     */
+    public RejectedTokenCache getRejectedTokens() {
+        return rejectedTokens;
+    }
+
+    /**
+     * Hit/miss/eviction statistics of the result cache, or null if caching is disabled.
+     */
+    public CacheStats getCacheStats() {
+        return resultCache != null ? resultCache.stats() : null;
+    }
+
+    /**
+     * Number of cached introspection results.
+     */
+    public long getCacheSize() {
+        return resultCache != null ? resultCache.size() : 0;
+    }
+
+    private Mono<OAuth2AuthenticatedPrincipal> introspectRemotely(String token) {
+        return Mono.defer(() -> {
+            long start = metrics.start();
+            return webClient.post()
+                .uri(introspectionUri)
+                .headers(headers -> headers.setBasicAuth(clientId, clientSecret))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("token", token))
+                .retrieve()
+                .bodyToMono(RESPONSE_TYPE)
+                .defaultIfEmpty(Map.of())
+                .onErrorMap(e -> {
+                    // Transport or server failure - says nothing about the token itself
+                    metrics.recordIntrospectionFailure(e);
+                    return new OAuth2IntrospectionException("Failed to introspect token: " + e.getMessage(), e);
+                })
+                .doOnTerminate(() -> metrics.record(ValidationMetrics.Stage.INTROSPECTION, start))
+                .map(this::toPrincipal);
+        });
+    }
+
+    private OAuth2AuthenticatedPrincipal toPrincipal(Map<String, Object> responseBody) {
+        // Check if token is active
+        if (!Boolean.TRUE.equals(responseBody.get("active"))) {
+            throw new BadOpaqueTokenException("Token is not active");
+        }
+
+        long mappingStart = metrics.start();
+        Collection<GrantedAuthority> authorities = authorityMapper.fromRealmAccessOrRoles(responseBody);
+        metrics.record(ValidationMetrics.Stage.AUTHORITY_MAPPING, mappingStart);
+        return new DefaultOAuth2AuthenticatedPrincipal(
+            (String) responseBody.get("sub"),
+            responseBody,
+            authorities
+        );
+    }
+}
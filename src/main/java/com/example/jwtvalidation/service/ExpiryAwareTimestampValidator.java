@@ -0,0 +1,61 @@
+package com.example.jwtvalidation.service;
+
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Spring's {@link JwtTimestampValidator}, reporting an expired token under its own error code.
+ *
+ * JwtTimestampValidator reports an expired token and one used before its nbf with the same
+ * invalid_token code; only the description tells them apart. Rejected tokens are classified by
+ * error code (see HybridValidationPolicy), so an expiry is reported as {@link #EXPIRED_TOKEN}.
+ * Clients still get invalid_token: the resource server builds the bearer error itself.
+ */
+public final class ExpiryAwareTimestampValidator implements OAuth2TokenValidator<Jwt> {
+
+    public static final String EXPIRED_TOKEN = "expired_token";
+
+    // JwtTimestampValidator's default
+    private static final Duration DEFAULT_CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private final JwtTimestampValidator timestamps;
+    private final Duration clockSkew;
+    private final Clock clock;
+
+    public ExpiryAwareTimestampValidator() {
+        this(DEFAULT_CLOCK_SKEW, Clock.systemUTC());
+    }
+
+    ExpiryAwareTimestampValidator(Duration clockSkew, Clock clock) {
+        this.timestamps = new JwtTimestampValidator(clockSkew);
+        this.timestamps.setClock(clock);
+        this.clockSkew = clockSkew;
+        this.clock = clock;
+    }
+
+    /**
+     * The validators of JwtValidators.createDefaultWithIssuer, with this timestamp validator.
+     */
+    public static OAuth2TokenValidator<Jwt> withIssuer(String issuer) {
+        return new DelegatingOAuth2TokenValidator<>(new ExpiryAwareTimestampValidator(), new JwtIssuerValidator(issuer));
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        OAuth2TokenValidatorResult result = timestamps.validate(jwt);
+        Instant expiresAt = jwt.getExpiresAt();
+        if (result.hasErrors() && expiresAt != null && Instant.now(clock).minus(clockSkew).isAfter(expiresAt)) {
+            return OAuth2TokenValidatorResult.failure(new OAuth2Error(EXPIRED_TOKEN, "Jwt expired at " + expiresAt, null));
+        }
+        return result;
+    }
+}
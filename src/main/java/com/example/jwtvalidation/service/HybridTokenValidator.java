@@ -1,24 +1,33 @@
 package com.example.jwtvalidation.service;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.example.jwtvalidation.cache.RejectedTokenCache;
+import com.example.jwtvalidation.cache.SingleFlight;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.CallingClient;
+import com.example.jwtvalidation.resilience.IntrospectionCircuitBreaker;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import com.example.jwtvalidation.revocation.RevocationIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.*;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * Hybrid token validator that combines local and remote validation.
@@ -29,140 +38,293 @@ import java.util.stream.Collectors;
  * 3. Fall back to remote validation if needed
  * 4. Optionally remote-validate tokens close to expiry
  *
+ * Near-expiry tokens are remote-validated either synchronously (SYNC, the default) or with
+ * STALE_WHILE_REVALIDATE: the locally verified token is served right away, one background
+ * introspection per token refreshes its remote verdict, and later requests use that verdict.
+ * A verdict older than max-stale-seconds is no longer served and is refreshed synchronously.
+ *
+ * Validated principals live in a {@link TwoLevelTokenCache}: the in-process cache, optionally
+ * backed by a cache shared with the other replicas, so a token is validated once per cluster.
+ *
+ * Introspection goes through an {@link IntrospectionCircuitBreaker}. While Keycloak is slow or
+ * failing the circuit opens: with the LOCAL fallback a near-expiry token that verified locally
+ * is served without the remote check (as is a stale remote verdict); everything that needs
+ * Keycloak fails fast instead of holding a request thread.
+ *
+ * Locally trusted principals are checked against the {@link RevocationIndex} (revoked jti, sid
+ * or subject, pushed by the identity provider). Only a hit there costs an introspection call.
+ *
+ * The caches and every decision above are the {@link HybridValidationPolicy}, shared with
+ * {@link ReactiveHybridTokenValidator}; this class only makes the blocking calls.
+ *
  * Best of both worlds:
  * - Fast validation for most requests (local)
  * - Real-time revocation checking when needed (remote)
  */
 @Component
 @ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class HybridTokenValidator {
 
     private final JwtDecoder jwtDecoder;
     private final OpaqueTokenIntrospector introspector;
-    private final Cache<String, Boolean> tokenCache;
-    private final boolean enableRemoteValidation;
-    private final int cacheExpiry;
+    private final HybridValidationPolicy policy;
+    private final ValidationMetrics metrics;
+    private final IntrospectionCircuitBreaker circuitBreaker;
+    private final IntrospectionLimiter limiter;
+    private final SingleFlight<TokenKey, OAuth2AuthenticatedPrincipal> introspections = new SingleFlight<>();
+    private final ExecutorService revalidationExecutor;
 
     @Autowired
     public HybridTokenValidator(
             JwtDecoder jwtDecoder,
             OpaqueTokenIntrospector introspector,
-            @Value("${app.security.hybrid.remote-validation-enabled:false}") boolean enableRemoteValidation,
-            @Value("${app.security.hybrid.cache-expiry-seconds:300}") int cacheExpiry) {
+            HybridValidationPolicy policy,
+            ValidationMetrics metrics,
+            IntrospectionCircuitBreaker circuitBreaker,
+            IntrospectionLimiter limiter,
+            @Value("${app.security.hybrid.revalidation-threads:2}") int revalidationThreads) {
         this.jwtDecoder = jwtDecoder;
         this.introspector = introspector;
-        this.enableRemoteValidation = enableRemoteValidation;
-        this.cacheExpiry = cacheExpiry;
-        this.tokenCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(cacheExpiry, TimeUnit.SECONDS)
-            .maximumSize(10000)
-            .build();
+        this.policy = policy;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+        this.revalidationExecutor = new ThreadPoolExecutor(
+            revalidationThreads, revalidationThreads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1000),
+            runnable -> {
+                Thread thread = new Thread(runnable, "hybrid-revalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revalidationExecutor.shutdownNow();
     }
 
     /**
      * Validates a token using hybrid approach.
      */
     public OAuth2AuthenticatedPrincipal validateToken(String token) {
-        // Check cache first
-        Boolean cachedResult = tokenCache.getIfPresent(token);
-        if (cachedResult != null && cachedResult) {
-            // Token was validated and cached - return from local validation
-            try {
-                Jwt jwt = jwtDecoder.decode(token);
-                return convertJwtToPrincipal(jwt);
-            } catch (JwtException e) {
-                // Cache was stale, remove it
-                tokenCache.invalidate(token);
-            }
+        // Check cache first - a hit is a ready principal, only its expiry is re-checked
+        TokenKey key = TokenKey.of(token);
+        OAuth2AuthenticatedPrincipal cached = policy.cached(key, token);
+        if (cached != null) {
+            return checkRevocation(key, token, cached);
         }
 
-        try {
-            // Try local validation first (fast path)
-            Jwt jwt = jwtDecoder.decode(token);
+        // Replayed bad token - reject without crypto or network work
+        RuntimeException rejection = policy.replayedRejection(key);
+        if (rejection != null) {
+            throw rejection;
+        }
 
-            // If local validation succeeds but remote validation enabled
-            // and we have suspicion (token close to expiry), verify remotely
-            if (enableRemoteValidation && shouldRemoteValidate(jwt)) {
-                return introspector.introspect(token);
+        // Near-expiry token with a known remote verdict - no decode, no blocking call
+        RemoteVerdict verdict = policy.remoteVerdict(key);
+        if (verdict != null) {
+            OAuth2AuthenticatedPrincipal principal = serveVerdict(key, token, verdict);
+            if (principal != null) {
+                return checkRevocation(key, token, principal);
             }
+        }
 
-            // Local validation succeeded
-            tokenCache.put(token, true);
-            return convertJwtToPrincipal(jwt);
-
+        Jwt jwt;
+        try {
+            // Try local validation first (fast path)
+            jwt = jwtDecoder.decode(token);
         } catch (JwtException e) {
             // Local validation failed, try remote if enabled
-            if (enableRemoteValidation) {
-                OAuth2AuthenticatedPrincipal principal = introspector.introspect(token);
-                tokenCache.put(token, true);
-                return principal;
+            if (policy.isRemoteValidationEnabled()) {
+                try {
+                    OAuth2AuthenticatedPrincipal principal = introspect(key, token);
+                    policy.cacheIntrospected(key, principal);
+                    return principal;
+                } catch (BadOpaqueTokenException inactive) {
+                    policy.rejectInactive(key);
+                    throw inactive;
+                }
             }
+            policy.rejectLocalFailure(key, e);
             throw e;
         }
+
+        return switch (policy.localAction(jwt)) {
+            case SERVE_PROVISIONAL -> {
+                // Serve the locally verified token now, ask Keycloak in the background
+                OAuth2AuthenticatedPrincipal principal = policy.serveProvisional(key, jwt);
+                scheduleRevalidation(key, token);
+                yield checkRevocation(key, token, principal);
+            }
+            case INTROSPECT -> {
+                try {
+                    yield introspect(key, token);
+                } catch (IntrospectionUnavailableException e) {
+                    if (!policy.fallsBackLocally(e)) {
+                        throw e;
+                    }
+                    // Keycloak is degraded - the signature and expiry checked out, serve it locally
+                    yield checkRevocation(key, token, policy.toPrincipal(jwt));
+                }
+            }
+            case CACHE -> {
+                // Local validation succeeded
+                OAuth2AuthenticatedPrincipal principal = policy.toPrincipal(jwt);
+                policy.cacheVerified(key, jwt, principal);
+                yield checkRevocation(key, token, principal);
+            }
+        };
     }
 
     /**
-     * Determines if token should be validated remotely.
-     * Currently checks if token is close to expiry (within 1 minute).
+     * Returns the locally trusted principal unless the revocation index has an entry for it.
+     * On a hit the token is introspected if remote validation is enabled, otherwise rejected.
      */
-    private boolean shouldRemoteValidate(Jwt jwt) {
-        Instant expiry = jwt.getExpiresAt();
-        if (expiry == null) {
-            return false;
+    private OAuth2AuthenticatedPrincipal checkRevocation(TokenKey key, String token,
+                                                         OAuth2AuthenticatedPrincipal principal) {
+        if (!policy.isRevoked(principal)) {
+            return principal;
+        }
+
+        policy.evict(key);
+        RuntimeException rejected = policy.revoked(key);
+        if (rejected != null) {
+            throw rejected;
+        }
+        try {
+            return introspect(key, token);
+        } catch (BadOpaqueTokenException e) {
+            policy.rejectInactive(key);
+            throw e;
         }
-        // Remote validate if token expires within 60 seconds
-        return expiry.isBefore(Instant.now().plusSeconds(60));
     }
 
     /**
-     * Converts JWT to OAuth2AuthenticatedPrincipal.
+     * Introspects a token remotely.
+     * Concurrent requests carrying the same token share a single introspection call. The circuit
+     * is checked first, so an open circuit fails fast without spending a rate token or waiting
+     * for limiter capacity, and only the call itself is timed by the circuit breaker.
      */
-    private OAuth2AuthenticatedPrincipal convertJwtToPrincipal(Jwt jwt) {
-        Map<String, Object> attributes = jwt.getClaims();
-        Collection<GrantedAuthority> authorities = extractAuthorities(jwt);
-        return new DefaultOAuth2AuthenticatedPrincipal(
-            jwt.getSubject(),
-            attributes,
-            authorities
-        );
+    private OAuth2AuthenticatedPrincipal introspect(TokenKey key, String token) {
+        return introspections.execute(key, () -> {
+            boolean probe = circuitBreaker.acquirePermission();
+            boolean[] admitted = new boolean[1];
+            try {
+                return limiter.call(token, CallingClient.remoteAddress(), () -> {
+                    admitted[0] = true;
+                    return circuitBreaker.callPermitted(probe, () -> introspectRemotely(token));
+                });
+            } finally {
+                if (!admitted[0]) {
+                    circuitBreaker.onCancel(probe);
+                }
+            }
+        });
+    }
+
+    private OAuth2AuthenticatedPrincipal introspectRemotely(String token) {
+        long start = metrics.start();
+        try {
+            return introspector.introspect(token);
+        } catch (BadOpaqueTokenException e) {
+            throw e;
+        } catch (OAuth2IntrospectionException e) {
+            metrics.recordIntrospectionFailure(e);
+            throw e;
+        } finally {
+            metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+        }
     }
 
     /**
-     * Extracts authorities from JWT claims.
+     * Serves a request from the token's remote verdict.
+     * Returns null if the verdict can no longer be used and the token must be decoded again.
      */
-    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) jwt.getClaim("roles");
+    private OAuth2AuthenticatedPrincipal serveVerdict(TokenKey key, String token, RemoteVerdict verdict) {
+        return switch (policy.verdictAction(key, verdict)) {
+            case REJECT -> throw new BadOpaqueTokenException("Token is not active");
+            case DECODE -> null;
+            case REVALIDATE_NOW -> {
+                // Too stale to trust - revalidate on the request thread
+                try {
+                    yield revalidate(key, token).getPrincipal().getPrincipal();
+                } catch (IntrospectionUnavailableException e) {
+                    if (!policy.fallsBackLocally(e)) {
+                        throw e;
+                    }
+                    yield verdict.getPrincipal().getPrincipal();
+                }
+            }
+            case SERVE_AND_REVALIDATE -> {
+                scheduleRevalidation(key, token);
+                yield verdict.getPrincipal().getPrincipal();
+            }
+            case SERVE -> verdict.getPrincipal().getPrincipal();
+        };
+    }
 
-        if (roles == null) {
-            return Collections.emptyList();
+    /**
+     * Starts a background revalidation unless one is already running for this token.
+     */
+    private void scheduleRevalidation(TokenKey key, String token) {
+        if (!policy.startRevalidation(key)) {
+            return;
         }
+        try {
+            revalidationExecutor.execute(() -> {
+                try {
+                    revalidate(key, token);
+                } catch (RuntimeException e) {
+                    // Keycloak unreachable - keep the current verdict, max-stale bounds its use
+                } finally {
+                    policy.revalidationDone(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            policy.revalidationDone(key);
+        }
+    }
 
-        return roles.stream()
-            .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-            .collect(Collectors.toList());
+    /**
+     * Introspects the token and records the outcome as its remote verdict.
+     * An inactive token is rejected; other introspection failures leave the verdict unchanged.
+     */
+    private RemoteVerdict revalidate(TokenKey key, String token) {
+        try {
+            return policy.recordActive(key, introspect(key, token));
+        } catch (BadOpaqueTokenException e) {
+            policy.recordInactive(key);
+            throw e;
+        }
     }
 
     /**
      * Invalidates cached token.
      */
     public void invalidateToken(String token) {
-        tokenCache.invalidate(token);
+        policy.invalidateToken(token);
+    }
+
+    /**
+     * Recently rejected tokens, answered without a decode.
+     */
+    public RejectedTokenCache getRejectedTokens() {
+        return policy.getRejectedTokens();
     }
 
     /**
      * Clears all cached tokens.
      */
     public void clearCache() {
-        tokenCache.invalidateAll();
+        policy.clearCache();
     }
 
     /**
      * Gets cache statistics.
      */
     public String getCacheStats() {
-        return String.format("Cache size: %d, Hit rate: %.2f%%",
-            tokenCache.size(),
-            tokenCache.stats().hitRate() * 100);
+        return policy.getCacheStats();
     }
 }
@@ -0,0 +1,400 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.RejectedTokenCache;
+import com.example.jwtvalidation.cache.RejectionReason;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import com.example.jwtvalidation.revocation.RevocationIndex;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HYBRID validation policy, shared by {@link HybridTokenValidator} (servlet) and
+ * {@link ReactiveHybridTokenValidator} (reactive), which only differ in how they call the
+ * decoder and the introspector: blocking or as a Mono.
+ *
+ * It owns the caches and their keys (the {@link TwoLevelTokenCache} of validated principals,
+ * the remote verdicts of near-expiry tokens, the negative cache) and makes every routing
+ * decision: which tokens are answered from a cache, which are remote-validated and when, what
+ * a revocation hit costs, and when a locally verified token is served because Keycloak is
+ * unavailable.
+ *
+ * Token cache calls may do I/O when a shared (L2) store is configured; the reactive validator
+ * moves them off the event loop, see {@link #isSharedCache()}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+public class HybridValidationPolicy {
+
+    /**
+     * What to do with the remote verdict of a near-expiry token.
+     */
+    public enum VerdictAction {
+        /** Keycloak reported the token inactive. */
+        REJECT,
+        /** The verdict is no longer usable, validate the token again. */
+        DECODE,
+        /** Too stale to trust, introspect before answering. */
+        REVALIDATE_NOW,
+        /** Serve the verdict and refresh it in the background. */
+        SERVE_AND_REVALIDATE,
+        SERVE
+    }
+
+    /**
+     * What to do with a token that passed local validation.
+     */
+    public enum LocalAction {
+        /** Cache the principal and serve it. */
+        CACHE,
+        /** Near expiry (STALE_WHILE_REVALIDATE): serve it now, introspect in the background. */
+        SERVE_PROVISIONAL,
+        /** Near expiry (SYNC): introspect before answering. */
+        INTROSPECT
+    }
+
+    private final AuthorityMapper authorityMapper;
+    private final RevocationIndex revocationIndex;
+    private final ValidationMetrics metrics;
+    private final TwoLevelTokenCache tokenCache;
+    private final Cache<TokenKey, RemoteVerdict> remoteVerdicts;
+    private final RejectedTokenCache rejectedTokens;
+    private final Set<TokenKey> revalidating = ConcurrentHashMap.newKeySet();
+    private final boolean enableRemoteValidation;
+    private final boolean staleWhileRevalidate;
+    private final long nearExpiryWindowSeconds;
+    private final long revalidateAfterSeconds;
+    private final long maxStaleSeconds;
+    private final boolean localFallback;
+
+    @Autowired
+    public HybridValidationPolicy(
+            AuthorityMapper authorityMapper,
+            RevocationIndex revocationIndex,
+            ValidationMetrics metrics,
+            TwoLevelTokenCache tokenCache,
+            @Value("${app.security.hybrid.remote-validation-enabled:false}") boolean enableRemoteValidation,
+            @Value("${app.security.hybrid.near-expiry-mode:SYNC}") String nearExpiryMode,
+            @Value("${app.security.hybrid.near-expiry-window-seconds:60}") long nearExpiryWindowSeconds,
+            @Value("${app.security.hybrid.revalidate-after-seconds:10}") long revalidateAfterSeconds,
+            @Value("${app.security.hybrid.max-stale-seconds:30}") long maxStaleSeconds,
+            @Value("${app.security.hybrid.circuit-breaker.fallback:LOCAL}") String circuitBreakerFallback,
+            @Value("${app.security.negative-cache.ttl-seconds:30}") long negativeCacheTtl,
+            @Value("${app.security.negative-cache.maximum-size:10000}") long negativeCacheSize) {
+        this.authorityMapper = authorityMapper;
+        this.revocationIndex = revocationIndex;
+        this.metrics = metrics;
+        this.tokenCache = tokenCache;
+        this.enableRemoteValidation = enableRemoteValidation;
+        this.staleWhileRevalidate = "STALE_WHILE_REVALIDATE".equalsIgnoreCase(nearExpiryMode);
+        this.nearExpiryWindowSeconds = nearExpiryWindowSeconds;
+        this.revalidateAfterSeconds = revalidateAfterSeconds;
+        this.maxStaleSeconds = maxStaleSeconds;
+        this.localFallback = "LOCAL".equalsIgnoreCase(circuitBreakerFallback);
+        // Near-expiry tokens are gone within the window, so their verdicts are too
+        this.remoteVerdicts = CacheBuilder.newBuilder()
+            .expireAfterWrite(nearExpiryWindowSeconds, TimeUnit.SECONDS)
+            .maximumSize(10000)
+            .recordStats()
+            .build();
+        this.rejectedTokens = new RejectedTokenCache(negativeCacheTtl, negativeCacheSize);
+        metrics.registerCache("hybrid.tokens", tokenCache::stats, tokenCache::size);
+        metrics.registerCache("hybrid.remoteVerdicts", remoteVerdicts);
+        metrics.registerCache("hybrid.rejected", rejectedTokens::stats, rejectedTokens::size);
+    }
+
+    // ==================== Token cache ====================
+
+    /**
+     * The cached, unexpired principal for the token, or null. An entry that expired since it
+     * was cached is dropped (every replica sees the same expiry).
+     */
+    public OAuth2AuthenticatedPrincipal cached(TokenKey key, String token) {
+        CachedPrincipal cached = tokenCache.get(key, token);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(Instant.now())) {
+            tokenCache.invalidateLocal(key);
+            return null;
+        }
+        return cached.getPrincipal();
+    }
+
+    /**
+     * Caches a locally verified principal until the token expires.
+     */
+    public void cacheVerified(TokenKey key, Jwt jwt, OAuth2AuthenticatedPrincipal principal) {
+        tokenCache.put(key, new CachedPrincipal(principal, jwt.getExpiresAt()));
+    }
+
+    /**
+     * Caches an introspected principal until its 'exp'.
+     */
+    public void cacheIntrospected(TokenKey key, OAuth2AuthenticatedPrincipal principal) {
+        tokenCache.put(key, CachedPrincipal.of(principal));
+    }
+
+    /**
+     * Whether token cache calls may do I/O (a shared store is configured).
+     */
+    public boolean isSharedCache() {
+        return tokenCache.isShared();
+    }
+
+    // ==================== Routing ====================
+
+    /**
+     * Whether Keycloak is asked when local trust is not enough: a token that fails local
+     * validation, a near-expiry token, a revocation index hit.
+     */
+    public boolean isRemoteValidationEnabled() {
+        return enableRemoteValidation;
+    }
+
+    /**
+     * The exception for a replayed rejected token, or null if it was not rejected recently.
+     */
+    public RuntimeException replayedRejection(TokenKey key) {
+        RejectionReason rejection = rejectedTokens.getIfRejected(key);
+        return rejection != null ? rejectedException(rejection) : null;
+    }
+
+    /**
+     * The known remote verdict of a near-expiry token (STALE_WHILE_REVALIDATE only), or null.
+     */
+    public RemoteVerdict remoteVerdict(TokenKey key) {
+        return enableRemoteValidation && staleWhileRevalidate ? remoteVerdicts.getIfPresent(key) : null;
+    }
+
+    /**
+     * How to answer from a remote verdict, by its age.
+     */
+    public VerdictAction verdictAction(TokenKey key, RemoteVerdict verdict) {
+        Instant now = Instant.now();
+        if (!verdict.isActive()) {
+            return VerdictAction.REJECT;
+        }
+        if (verdict.getPrincipal().isExpired(now)) {
+            remoteVerdicts.invalidate(key);
+            return VerdictAction.DECODE;
+        }
+        long ageSeconds = verdict.age(now).getSeconds();
+        if (ageSeconds >= maxStaleSeconds) {
+            return VerdictAction.REVALIDATE_NOW;
+        }
+        return ageSeconds >= revalidateAfterSeconds ? VerdictAction.SERVE_AND_REVALIDATE : VerdictAction.SERVE;
+    }
+
+    /**
+     * How to answer a locally verified token. Tokens expiring within the near-expiry window are
+     * remote-validated if remote validation is enabled.
+     */
+    public LocalAction localAction(Jwt jwt) {
+        Instant expiry = jwt.getExpiresAt();
+        if (!enableRemoteValidation || expiry == null
+                || !expiry.isBefore(Instant.now().plusSeconds(nearExpiryWindowSeconds))) {
+            return LocalAction.CACHE;
+        }
+        return staleWhileRevalidate ? LocalAction.SERVE_PROVISIONAL : LocalAction.INTROSPECT;
+    }
+
+    /**
+     * The principal of a near-expiry token served before Keycloak has been asked, recorded as
+     * its provisional verdict. The caller starts the background revalidation.
+     */
+    public OAuth2AuthenticatedPrincipal serveProvisional(TokenKey key, Jwt jwt) {
+        OAuth2AuthenticatedPrincipal principal = toPrincipal(jwt);
+        remoteVerdicts.put(key, RemoteVerdict.provisional(new CachedPrincipal(principal, jwt.getExpiresAt()), Instant.now()));
+        return principal;
+    }
+
+    /**
+     * Whether an introspection failure is answered with the locally verified principal: Keycloak
+     * is unavailable (circuit open, limiter full) and the LOCAL fallback is configured.
+     */
+    public boolean fallsBackLocally(Throwable e) {
+        return localFallback && e instanceof IntrospectionUnavailableException;
+    }
+
+    /**
+     * Remembers a definitive local rejection, not e.g. a failed JWKS fetch.
+     */
+    public void rejectLocalFailure(TokenKey key, JwtException e) {
+        if (e instanceof BadJwtException badJwt) {
+            rejectedTokens.reject(key, rejectionReason(badJwt));
+        }
+    }
+
+    /**
+     * Remembers that Keycloak reported the token inactive.
+     */
+    public void rejectInactive(TokenKey key) {
+        rejectedTokens.reject(key, RejectionReason.INACTIVE);
+    }
+
+    // ==================== Revocation ====================
+
+    /**
+     * Whether the revocation index covers the principal's jti, sid or subject.
+     */
+    public boolean isRevoked(OAuth2AuthenticatedPrincipal principal) {
+        Object iat = principal.getAttribute("iat");
+        Instant issuedAt = iat instanceof Instant instant ? instant
+            : iat instanceof Number number ? Instant.ofEpochSecond(number.longValue())
+            : null;
+        return revocationIndex.isRevoked(stringAttribute(principal, "jti"), stringAttribute(principal, "sid"),
+            stringAttribute(principal, "sub"), issuedAt);
+    }
+
+    /**
+     * Records a revocation index hit. Returns the exception to fail with, or null if the token
+     * is to be introspected (remote validation enabled). The caller evicts the token cache entry.
+     */
+    public RuntimeException revoked(TokenKey key) {
+        remoteVerdicts.invalidate(key);
+        if (enableRemoteValidation) {
+            return null;
+        }
+        rejectInactive(key);
+        return new BadOpaqueTokenException("Token has been revoked");
+    }
+
+    /**
+     * Drops the token's cache entry, locally and in the shared store.
+     */
+    public void evict(TokenKey key) {
+        tokenCache.invalidate(key);
+    }
+
+    private static String stringAttribute(OAuth2AuthenticatedPrincipal principal, String name) {
+        Object value = principal.getAttribute(name);
+        return value != null ? value.toString() : null;
+    }
+
+    // ==================== Remote verdicts ====================
+
+    /**
+     * Claims a background revalidation for the token; false if one is already running.
+     * A successful claim must be released with {@link #revalidationDone}.
+     */
+    public boolean startRevalidation(TokenKey key) {
+        return revalidating.add(key);
+    }
+
+    public void revalidationDone(TokenKey key) {
+        revalidating.remove(key);
+    }
+
+    /**
+     * Records Keycloak's answer that the token is active.
+     */
+    public RemoteVerdict recordActive(TokenKey key, OAuth2AuthenticatedPrincipal principal) {
+        RemoteVerdict verdict = RemoteVerdict.active(CachedPrincipal.of(principal), Instant.now());
+        remoteVerdicts.put(key, verdict);
+        return verdict;
+    }
+
+    /**
+     * Records Keycloak's answer that the token is inactive, and rejects it.
+     */
+    public void recordInactive(TokenKey key) {
+        remoteVerdicts.put(key, RemoteVerdict.inactive(Instant.now()));
+        rejectInactive(key);
+    }
+
+    // ==================== Principals and errors ====================
+
+    /**
+     * Converts JWT to OAuth2AuthenticatedPrincipal.
+     * The full claim map is only built if something reads a claim beyond sub, exp and roles.
+     */
+    public OAuth2AuthenticatedPrincipal toPrincipal(Jwt jwt) {
+        long start = metrics.start();
+        Collection<GrantedAuthority> authorities = authorityMapper.fromRoles(jwt.getClaims().get("roles"));
+        metrics.record(ValidationMetrics.Stage.AUTHORITY_MAPPING, start);
+        return LazyClaimsPrincipal.of(jwt, authorities);
+    }
+
+    /**
+     * Classifies a local decode failure by its type, error codes and cause, never its message:
+     * the decoders wrap a parse failure's ParseException, and the claim validators report an
+     * expiry as {@link ExpiryAwareTimestampValidator#EXPIRED_TOKEN}.
+     */
+    static RejectionReason rejectionReason(BadJwtException e) {
+        if (e instanceof JwtValidationException validation) {
+            boolean expired = validation.getErrors().stream()
+                .anyMatch(error -> ExpiryAwareTimestampValidator.EXPIRED_TOKEN.equals(error.getErrorCode()));
+            return expired ? RejectionReason.EXPIRED : RejectionReason.INVALID_CLAIMS;
+        }
+        if (e.getCause() instanceof ParseException) {
+            return RejectionReason.MALFORMED;
+        }
+        return RejectionReason.BAD_SIGNATURE;
+    }
+
+    /**
+     * The exception a replayed rejected token gets, matching the path that first rejected it.
+     */
+    static RuntimeException rejectedException(RejectionReason reason) {
+        if (reason == RejectionReason.INACTIVE) {
+            return new BadOpaqueTokenException("Token is not active");
+        }
+        return new BadJwtException("Token rejected: " + reason);
+    }
+
+    // ==================== Management ====================
+
+    /**
+     * Invalidates cached token.
+     */
+    public void invalidateToken(String token) {
+        TokenKey key = TokenKey.of(token);
+        tokenCache.invalidate(key);
+        remoteVerdicts.invalidate(key);
+    }
+
+    /**
+     * Recently rejected tokens, answered without a decode.
+     */
+    public RejectedTokenCache getRejectedTokens() {
+        return rejectedTokens;
+    }
+
+    /**
+     * Clears all cached tokens.
+     */
+    public void clearCache() {
+        tokenCache.invalidateAll();
+        remoteVerdicts.invalidateAll();
+        rejectedTokens.invalidateAll();
+    }
+
+    /**
+     * Gets cache statistics.
+     */
+    public String getCacheStats() {
+        return String.format("Cache size: %d, Hit rate: %.2f%%",
+            tokenCache.size(),
+            tokenCache.stats().hitRate() * 100);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.jwtvalidation.service;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A principal for a verified JWT that materialises its claims on demand.
+ *
+ * Only what every request needs is held as fields: the subject, expiry, authorities and the
+ * claims the revocation check reads (jti, sid, iat). The rest of the token stays as the verified,
+ * still encoded payload and is parsed once, when an attribute other than these is first read; the
+ * parsed map is then kept. A cached principal that only ever serves path-authorized requests never
+ * parses, and one serving e.g. /user/profile parses on its first request, not on every cache hit.
+ *
+ * Time claims (exp, iat, nbf) are exposed as {@link Instant}, as in {@link Jwt#getClaims()}.
+ * For a token that is not a JWS, the attributes are just the eagerly known claims.
+ */
+public final class LazyClaimsPrincipal implements OAuth2AuthenticatedPrincipal {
+
+    private final byte[] encodedPayload;
+    private final String subject;
+    private final Instant expiresAt;
+    private final Instant issuedAt;
+    private final String jti;
+    private final String sid;
+    private final Collection<GrantedAuthority> authorities;
+    // Written once; a race only parses the same payload twice
+    private volatile Map<String, Object> parsedClaims;
+
+    private LazyClaimsPrincipal(byte[] encodedPayload, String subject, Instant expiresAt, Instant issuedAt,
+                                String jti, String sid, Collection<GrantedAuthority> authorities) {
+        this.encodedPayload = encodedPayload;
+        this.subject = subject;
+        this.expiresAt = expiresAt;
+        this.issuedAt = issuedAt;
+        this.jti = jti;
+        this.sid = sid;
+        this.authorities = authorities;
+    }
+
+    /**
+     * Creates the principal for a token the decoder has verified.
+     */
+    public static LazyClaimsPrincipal of(Jwt jwt, Collection<GrantedAuthority> authorities) {
+        return new LazyClaimsPrincipal(payloadOf(jwt.getTokenValue()), jwt.getSubject(), jwt.getExpiresAt(),
+            jwt.getIssuedAt(), jwt.getId(), jwt.getClaimAsString("sid"), authorities);
+    }
+
+    /**
+     * Creates the principal for a token whose verification is vouched for elsewhere
+     * (a signed shared-cache verdict), from the claims recorded with it.
+     */
+    public static LazyClaimsPrincipal of(String token, String subject, Instant expiresAt, Instant issuedAt,
+                                         String jti, String sid, Collection<GrantedAuthority> authorities) {
+        return new LazyClaimsPrincipal(payloadOf(token), subject, expiresAt, issuedAt, jti, sid, authorities);
+    }
+
+    private static byte[] payloadOf(String token) {
+        int start = token.indexOf('.') + 1;
+        int end = start > 0 ? token.indexOf('.', start) : -1;
+        if (end < 0) {
+            return new byte[0];
+        }
+        return token.substring(start, end).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Eagerly known claims are answered without parsing the payload; others from the parsed claims.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A getAttribute(String name) {
+        Object value = switch (name) {
+            case "sub" -> subject;
+            case "exp" -> expiresAt;
+            case "iat" -> issuedAt;
+            case "jti" -> jti;
+            case "sid" -> sid;
+            default -> claims().get(name);
+        };
+        return (A) value;
+    }
+
+    /**
+     * All claims, parsed from the payload on first use.
+     */
+    @Override
+    public Map<String, Object> getAttributes() {
+        return claims();
+    }
+
+    private Map<String, Object> claims() {
+        Map<String, Object> parsed = parsedClaims;
+        if (parsed == null) {
+            parsed = parsePayload();
+            parsedClaims = parsed;
+        }
+        return parsed;
+    }
+
+    private Map<String, Object> parsePayload() {
+        if (encodedPayload.length == 0) {
+            return eagerClaims();
+        }
+        String json = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8);
+        Map<String, Object> claims;
+        try {
+            claims = new LinkedHashMap<>(JSONObjectUtils.parse(json));
+        } catch (ParseException e) {
+            // Cannot happen for a payload the decoder has already verified and parsed
+            throw new IllegalStateException("Verified JWT payload is not valid JSON", e);
+        }
+        toInstant(claims, "exp");
+        toInstant(claims, "iat");
+        toInstant(claims, "nbf");
+        return Collections.unmodifiableMap(claims);
+    }
+
+    private Map<String, Object> eagerClaims() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        putIfPresent(claims, "sub", subject);
+        putIfPresent(claims, "exp", expiresAt);
+        putIfPresent(claims, "iat", issuedAt);
+        putIfPresent(claims, "jti", jti);
+        putIfPresent(claims, "sid", sid);
+        return Collections.unmodifiableMap(claims);
+    }
+
+    private static void putIfPresent(Map<String, Object> claims, String name, Object value) {
+        if (value != null) {
+            claims.put(name, value);
+        }
+    }
+
+    private static void toInstant(Map<String, Object> claims, String name) {
+        if (claims.get(name) instanceof Number number) {
+            claims.put(name, Instant.ofEpochSecond(number.longValue()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazyClaimsPrincipal[sub=" + subject + ", authorities=" + authorities + "]";
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.ReactiveSingleFlight;
+import com.example.jwtvalidation.cache.RejectedTokenCache;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.metrics.ValidationMetrics;
+import com.example.jwtvalidation.resilience.CallingClient;
+import com.example.jwtvalidation.resilience.IntrospectionCircuitBreaker;
+import com.example.jwtvalidation.resilience.IntrospectionLimiter;
+import com.example.jwtvalidation.revocation.RevocationIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking counterpart of {@link HybridTokenValidator} for the reactive stack.
+ *
+ * Both validators apply the same {@link HybridValidationPolicy}: the {@link TwoLevelTokenCache}
+ * answers repeat tokens, the negative cache answers replayed bad ones, near-expiry tokens are
+ * remote-validated (SYNC or STALE_WHILE_REVALIDATE), and locally trusted principals are checked
+ * against the {@link RevocationIndex}. This class only makes the calls as Monos: concurrent
+ * introspections of one token are shared, and introspection goes through the same
+ * {@link IntrospectionLimiter} and {@link IntrospectionCircuitBreaker}, using their
+ * non-blocking admission.
+ *
+ * Nothing here blocks an event-loop thread: background revalidation is a subscription rather
+ * than a thread pool, and only a shared (L2) store, which may do I/O, is moved to the bounded
+ * elastic scheduler.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.validation-mode", havingValue = "HYBRID")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveHybridTokenValidator {
+
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final ReactiveOpaqueTokenIntrospector introspector;
+    private final HybridValidationPolicy policy;
+    private final ValidationMetrics metrics;
+    private final IntrospectionCircuitBreaker circuitBreaker;
+    private final IntrospectionLimiter limiter;
+    private final ReactiveSingleFlight<TokenKey, OAuth2AuthenticatedPrincipal> introspections = new ReactiveSingleFlight<>();
+
+    @Autowired
+    public ReactiveHybridTokenValidator(
+            ReactiveJwtDecoder jwtDecoder,
+            ReactiveOpaqueTokenIntrospector introspector,
+            HybridValidationPolicy policy,
+            ValidationMetrics metrics,
+            IntrospectionCircuitBreaker circuitBreaker,
+            IntrospectionLimiter limiter) {
+        this.jwtDecoder = jwtDecoder;
+        this.introspector = introspector;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Validates a token using the hybrid approach. Fails with a {@link JwtException} or an
+     * {@link OAuth2IntrospectionException}, like {@link HybridTokenValidator#validateToken}.
+     */
+    public Mono<OAuth2AuthenticatedPrincipal> validateToken(String token) {
+        TokenKey key = TokenKey.of(token);
+        return onCacheScheduler(Mono.fromCallable(() -> policy.cached(key, token)))
+            .flatMap(principal -> checkRevocation(key, token, principal))
+            .switchIfEmpty(Mono.defer(() -> validateUncached(key, token)));
+    }
+
+    private Mono<OAuth2AuthenticatedPrincipal> validateUncached(TokenKey key, String token) {
+        // Replayed bad token - reject without crypto or network work
+        RuntimeException rejection = policy.replayedRejection(key);
+        if (rejection != null) {
+            return Mono.error(rejection);
+        }
+
+        // Near-expiry token with a known remote verdict - no decode, no call
+        RemoteVerdict verdict = policy.remoteVerdict(key);
+        if (verdict != null) {
+            Mono<OAuth2AuthenticatedPrincipal> served = serveVerdict(key, token, verdict);
+            if (served != null) {
+                return served.flatMap(principal -> checkRevocation(key, token, principal));
+            }
+        }
+
+        return jwtDecoder.decode(token)
+            .flatMap(jwt -> validated(key, token, jwt))
+            .onErrorResume(JwtException.class, e -> localValidationFailed(key, token, e));
+    }
+
+    /**
+     * A token that passed local validation.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> validated(TokenKey key, String token, Jwt jwt) {
+        return switch (policy.localAction(jwt)) {
+            case SERVE_PROVISIONAL -> {
+                // Serve the locally verified token now, ask Keycloak in the background
+                OAuth2AuthenticatedPrincipal principal = policy.serveProvisional(key, jwt);
+                scheduleRevalidation(key, token);
+                yield checkRevocation(key, token, principal);
+            }
+            // Keycloak is degraded - the signature and expiry checked out, serve it locally
+            case INTROSPECT -> introspect(key, token).onErrorResume(policy::fallsBackLocally,
+                e -> checkRevocation(key, token, policy.toPrincipal(jwt)));
+            case CACHE -> {
+                OAuth2AuthenticatedPrincipal principal = policy.toPrincipal(jwt);
+                yield onCacheScheduler(Mono.fromRunnable(() -> policy.cacheVerified(key, jwt, principal)))
+                    .then(Mono.defer(() -> checkRevocation(key, token, principal)));
+            }
+        };
+    }
+
+    /**
+     * Local validation failed: introspect if remote validation is enabled, otherwise reject.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> localValidationFailed(TokenKey key, String token, JwtException e) {
+        if (policy.isRemoteValidationEnabled()) {
+            return introspect(key, token)
+                .flatMap(principal -> onCacheScheduler(Mono.fromRunnable(() -> policy.cacheIntrospected(key, principal)))
+                    .thenReturn(principal))
+                .doOnError(BadOpaqueTokenException.class, inactive -> policy.rejectInactive(key));
+        }
+        policy.rejectLocalFailure(key, e);
+        return Mono.error(e);
+    }
+
+    /**
+     * The locally trusted principal unless the revocation index has an entry for it.
+     * On a hit the token is introspected if remote validation is enabled, otherwise rejected.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> checkRevocation(TokenKey key, String token,
+                                                               OAuth2AuthenticatedPrincipal principal) {
+        if (!policy.isRevoked(principal)) {
+            return Mono.just(principal);
+        }
+
+        Mono<Void> evicted = onCacheScheduler(Mono.fromRunnable(() -> policy.evict(key)));
+        RuntimeException rejected = policy.revoked(key);
+        if (rejected != null) {
+            return evicted.then(Mono.error(rejected));
+        }
+        return evicted.then(introspect(key, token))
+            .doOnError(BadOpaqueTokenException.class, e -> policy.rejectInactive(key));
+    }
+
+    /**
+     * Introspects a token remotely. Concurrent requests carrying the same token share one call.
+     * The circuit is checked before the limiter, so an open circuit fails fast without spending
+     * a rate token or a delay, and only the call itself is timed by the circuit breaker.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> introspect(TokenKey key, String token) {
+        return introspections.execute(key, () -> Mono.deferContextual(context -> {
+            boolean probe = circuitBreaker.acquirePermission();
+            long delayNanos;
+            try {
+                delayNanos = limiter.admit(token, CallingClient.remoteAddress(context));
+            } catch (RuntimeException e) {
+                circuitBreaker.onCancel(probe);
+                throw e;
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<OAuth2AuthenticatedPrincipal> call = Mono.defer(() -> {
+                started.set(true);
+                return guardedIntrospection(token, probe);
+            });
+            return (delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).then(call) : call)
+                .doFinally(signal -> {
+                    limiter.release();
+                    if (!started.get()) {
+                        // Cancelled during the rate delay, before the call was made
+                        circuitBreaker.onCancel(probe);
+                    }
+                });
+        }));
+    }
+
+    private Mono<OAuth2AuthenticatedPrincipal> guardedIntrospection(String token, boolean probe) {
+        long start = metrics.start();
+        return introspector.introspect(token)
+            .doOnSuccess(principal -> {
+                metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+                circuitBreaker.onComplete(probe, System.nanoTime() - start, null);
+            })
+            .doOnError(e -> {
+                metrics.record(ValidationMetrics.Stage.INTROSPECTION, start);
+                if (e instanceof OAuth2IntrospectionException && !(e instanceof BadOpaqueTokenException)) {
+                    metrics.recordIntrospectionFailure(e);
+                }
+                circuitBreaker.onComplete(probe, System.nanoTime() - start, e);
+            })
+            .doOnCancel(() -> circuitBreaker.onCancel(probe));
+    }
+
+    /**
+     * Serves a request from the token's remote verdict.
+     * Returns null if the verdict can no longer be used and the token must be decoded again.
+     */
+    private Mono<OAuth2AuthenticatedPrincipal> serveVerdict(TokenKey key, String token, RemoteVerdict verdict) {
+        return switch (policy.verdictAction(key, verdict)) {
+            case REJECT -> Mono.error(new BadOpaqueTokenException("Token is not active"));
+            case DECODE -> null;
+            // Too stale to trust - revalidate before answering
+            case REVALIDATE_NOW -> revalidate(key, token)
+                .map(verdictNow -> verdictNow.getPrincipal().getPrincipal())
+                .onErrorResume(policy::fallsBackLocally, e -> Mono.just(verdict.getPrincipal().getPrincipal()));
+            case SERVE_AND_REVALIDATE -> {
+                scheduleRevalidation(key, token);
+                yield Mono.just(verdict.getPrincipal().getPrincipal());
+            }
+            case SERVE -> Mono.just(verdict.getPrincipal().getPrincipal());
+        };
+    }
+
+    /**
+     * Starts a background revalidation unless one is already running for this token.
+     */
+    private void scheduleRevalidation(TokenKey key, String token) {
+        if (!policy.startRevalidation(key)) {
+            return;
+        }
+        revalidate(key, token)
+            .doFinally(signal -> policy.revalidationDone(key))
+            .subscribe(verdict -> { }, e -> {
+                // Keycloak unreachable - keep the current verdict, max-stale bounds its use
+            });
+    }
+
+    /**
+     * Introspects the token and records the outcome as its remote verdict.
+     * An inactive token is rejected; other introspection failures leave the verdict unchanged.
+     */
+    private Mono<RemoteVerdict> revalidate(TokenKey key, String token) {
+        return introspect(key, token)
+            .map(principal -> policy.recordActive(key, principal))
+            .doOnError(BadOpaqueTokenException.class, e -> policy.recordInactive(key));
+    }
+
+    /**
+     * Moves token cache work off the event loop when a shared store (which may do I/O) is involved.
+     */
+    private <T> Mono<T> onCacheScheduler(Mono<T> cacheWork) {
+        return policy.isSharedCache() ? cacheWork.subscribeOn(Schedulers.boundedElastic()) : cacheWork;
+    }
+
+    /**
+     * Invalidates cached token.
+     */
+    public void invalidateToken(String token) {
+        policy.invalidateToken(token);
+    }
+
+    /**
+     * Recently rejected tokens, answered without a decode.
+     */
+    public RejectedTokenCache getRejectedTokens() {
+        return policy.getRejectedTokens();
+    }
+
+    /**
+     * Clears all cached tokens.
+     */
+    public void clearCache() {
+        policy.clearCache();
+    }
+
+    /**
+     * Gets cache statistics.
+     */
+    public String getCacheStats() {
+        return policy.getCacheStats();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.jwtvalidation.service;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The last known remote (introspection) status of a near-expiry token.
+ *
+ * A provisional verdict is recorded when a locally verified token is served before
+ * Keycloak has been asked; it is replaced once the background revalidation completes.
+ */
+public final class RemoteVerdict {
+
+    private final CachedPrincipal principal;
+    private final boolean active;
+    private final boolean provisional;
+    private final Instant checkedAt;
+
+    private RemoteVerdict(CachedPrincipal principal, boolean active, boolean provisional, Instant checkedAt) {
+        this.principal = principal;
+        this.active = active;
+        this.provisional = provisional;
+        this.checkedAt = checkedAt;
+    }
+
+    /**
+     * Locally verified, remote status not known yet.
+     */
+    public static RemoteVerdict provisional(CachedPrincipal principal, Instant now) {
+        return new RemoteVerdict(principal, true, true, now);
+    }
+
+    /**
+     * Keycloak reported the token as active.
+     */
+    public static RemoteVerdict active(CachedPrincipal principal, Instant now) {
+        return new RemoteVerdict(principal, true, false, now);
+    }
+
+    /**
+     * Keycloak reported the token as inactive (revoked, logged out, ...). This is final.
+     */
+    public static RemoteVerdict inactive(Instant now) {
+        return new RemoteVerdict(null, false, false, now);
+    }
+
+    public CachedPrincipal getPrincipal() {
+        return principal;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isProvisional() {
+        return provisional;
+    }
+
+    public Instant getCheckedAt() {
+        return checkedAt;
+    }
+
+    public Duration age(Instant now) {
+        return Duration.between(checkedAt, now);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.SharedVerdictStore;
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.crypto.HmacJwsSigner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token cache of the HYBRID validator: an in-process L1 in front of an optional shared L2.
+ *
+ * An L1 miss asks the shared store, so a token validated on one replica is not validated again
+ * on the others. L2 entries are signed verdicts ({@link VerdictCodec}) with their own TTL, capped
+ * at the token's expiry; a verdict that fails verification is treated as a miss. Invalidating a
+ * token (revocation, logout) removes it from the L2 and, through the store's invalidation
+ * listeners, from the L1 of every replica.
+ *
+ * Without a shared store this is just the L1.
+ */
+public class TwoLevelTokenCache {
+
+    private final Cache<TokenKey, CachedPrincipal> local;
+    private final SharedVerdictStore shared;
+    private final VerdictCodec codec;
+    private final long sharedTtlSeconds;
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+    private final LongAdder sharedRejected = new LongAdder();
+
+    /**
+     * L1 only.
+     */
+    public TwoLevelTokenCache(long localExpirySeconds, long localMaximumSize) {
+        this(localExpirySeconds, localMaximumSize, null, null, null, 0);
+    }
+
+    public TwoLevelTokenCache(long localExpirySeconds, long localMaximumSize, SharedVerdictStore shared,
+                              HmacJwsSigner signer, AuthorityMapper authorityMapper, long sharedTtlSeconds) {
+        this.local = CacheBuilder.newBuilder()
+            .expireAfterWrite(localExpirySeconds, TimeUnit.SECONDS)
+            .maximumSize(localMaximumSize)
+            .recordStats()
+            .build();
+        this.shared = shared;
+        this.codec = shared != null ? new VerdictCodec(signer, authorityMapper) : null;
+        this.sharedTtlSeconds = sharedTtlSeconds;
+        if (shared != null) {
+            shared.addInvalidationListener(key -> {
+                if (key == null) {
+                    local.invalidateAll();
+                } else {
+                    local.invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * The cached principal for a token from L1, else from L2 (then kept in L1), else null.
+     */
+    public CachedPrincipal get(TokenKey key, String token) {
+        CachedPrincipal cached = local.getIfPresent(key);
+        if (cached != null || shared == null) {
+            return cached;
+        }
+        String verdict = shared.get(key);
+        if (verdict == null) {
+            sharedMisses.increment();
+            return null;
+        }
+        cached = codec.decode(key, token, verdict, Instant.now());
+        if (cached == null) {
+            sharedRejected.increment();
+            return null;
+        }
+        sharedHits.increment();
+        local.put(key, cached);
+        return cached;
+    }
+
+    /**
+     * Caches a validated principal in L1 and publishes its verdict to L2.
+     */
+    public void put(TokenKey key, CachedPrincipal principal) {
+        local.put(key, principal);
+        if (shared == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant verdictExpiresAt = now.plusSeconds(sharedTtlSeconds);
+        if (principal.getExpiresAt() != null && principal.getExpiresAt().isBefore(verdictExpiresAt)) {
+            verdictExpiresAt = principal.getExpiresAt();
+        }
+        if (verdictExpiresAt.isAfter(now)) {
+            shared.put(key, codec.encode(key, principal, verdictExpiresAt));
+        }
+    }
+
+    /**
+     * Drops a token from this replica's L1 only, e.g. once it has expired.
+     */
+    public void invalidateLocal(TokenKey key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drops a token on every replica.
+     */
+    public void invalidate(TokenKey key) {
+        local.invalidate(key);
+        if (shared != null) {
+            shared.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops all tokens on every replica.
+     */
+    public void invalidateAll() {
+        local.invalidateAll();
+        if (shared != null) {
+            shared.invalidateAll();
+        }
+    }
+
+    public boolean isShared() {
+        return shared != null;
+    }
+
+    /**
+     * L1 statistics.
+     */
+    public CacheStats stats() {
+        return local.stats();
+    }
+
+    public long size() {
+        return local.size();
+    }
+
+    /**
+     * L2 statistics; verdicts that failed verification count as misses.
+     */
+    public CacheStats sharedStats() {
+        return new CacheStats(sharedHits.sum(), sharedMisses.sum() + sharedRejected.sum(), 0, 0, 0, 0);
+    }
+
+    public long sharedSize() {
+        return shared != null ? shared.size() : 0;
+    }
+
+    public long getSharedRejected() {
+        return sharedRejected.sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.TokenKey;
+import com.example.jwtvalidation.crypto.HmacJwsSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compact, signed form of a cached principal for the shared cache.
+ *
+ * A verdict is an HS256 JWS holding the token key ("tk"), the verdict's own expiry ("exp"), and
+ * what the principal needs without re-verifying the token: subject, token expiry ("texp"), iat,
+ * jti, sid and the mapped authority names ("auth"). The remaining claims are read lazily from
+ * the presented token itself, which the key binds the verdict to.
+ */
+final class VerdictCodec {
+
+    private final HmacJwsSigner signer;
+    private final AuthorityMapper authorityMapper;
+
+    VerdictCodec(HmacJwsSigner signer, AuthorityMapper authorityMapper) {
+        this.signer = signer;
+        this.authorityMapper = authorityMapper;
+    }
+
+    String encode(TokenKey key, CachedPrincipal cached, Instant verdictExpiresAt) {
+        OAuth2AuthenticatedPrincipal principal = cached.getPrincipal();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+            .claim("tk", key.toHex())
+            .expirationTime(Date.from(verdictExpiresAt))
+            .subject(principal.getName())
+            .claim("auth", principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (cached.getExpiresAt() != null) {
+            claims.claim("texp", cached.getExpiresAt().getEpochSecond());
+        }
+        Instant issuedAt = instantAttribute(principal, "iat");
+        if (issuedAt != null) {
+            claims.issueTime(Date.from(issuedAt));
+        }
+        if (principal.getAttribute("jti") != null) {
+            claims.jwtID(principal.getAttribute("jti").toString());
+        }
+        if (principal.getAttribute("sid") != null) {
+            claims.claim("sid", principal.getAttribute("sid").toString());
+        }
+        return signer.sign(claims.build());
+    }
+
+    /**
+     * Returns the principal for a verdict, or null if the verdict is forged, belongs to another
+     * token or has expired.
+     */
+    CachedPrincipal decode(TokenKey key, String token, String verdict, Instant now) {
+        if (!signer.verify(verdict)) {
+            return null;
+        }
+        try {
+            JWTClaimsSet claims = SignedJWT.parse(verdict).getJWTClaimsSet();
+            Date expiresAt = claims.getExpirationTime();
+            if (!key.toHex().equals(claims.getStringClaim("tk"))
+                    || expiresAt == null || !expiresAt.toInstant().isAfter(now)) {
+                return null;
+            }
+            Long tokenExp = claims.getLongClaim("texp");
+            Instant tokenExpiresAt = tokenExp != null ? Instant.ofEpochSecond(tokenExp) : null;
+            Date issuedAt = claims.getIssueTime();
+            List<String> authorities = claims.getStringListClaim("auth");
+
+            OAuth2AuthenticatedPrincipal principal = LazyClaimsPrincipal.of(token, claims.getSubject(),
+                tokenExpiresAt, issuedAt != null ? issuedAt.toInstant() : null,
+                claims.getJWTID(), claims.getStringClaim("sid"), authorityMapper.fromAuthorityNames(authorities));
+            return new CachedPrincipal(principal, tokenExpiresAt);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static Instant instantAttribute(OAuth2AuthenticatedPrincipal principal, String name) {
+        Object value = principal.getAttribute(name);
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof Number number) {
+            return Instant.ofEpochSecond(number.longValue());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.jwtvalidation.transport;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of concurrent requests on the transport and records them in the metrics.
+ *
+ * The pooled transport is already bounded by its connection manager; the JDK HttpClient has
+ * no per-client limit, so with HTTP/2 this bounds the number of concurrent streams instead.
+ * A caller that cannot get a slot within the acquire timeout fails fast instead of queueing
+ * behind a slow identity provider.
+ *
+ * A slot is held until the response is closed, which RestTemplate does after the body has been
+ * read: with the pooled transport the connection is only back in the pool at that point, so
+ * releasing on the headers would let more requests in than there are connections.
+ */
+public class BoundedTransportInterceptor implements ClientHttpRequestInterceptor {
+
+    private final IntrospectionTransportMetrics metrics;
+    private final Semaphore slots;
+    private final long acquireTimeoutMs;
+
+    /**
+     * @param maxConcurrent maximum concurrent requests, or 0 for no limit
+     */
+    public BoundedTransportInterceptor(IntrospectionTransportMetrics metrics, int maxConcurrent, long acquireTimeoutMs) {
+        this.metrics = metrics;
+        this.slots = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        acquire();
+        metrics.requestStarted();
+        boolean handedOver = false;
+        try {
+            ClientHttpResponse response = new SlotHoldingResponse(execution.execute(request, body));
+            handedOver = true;
+            return response;
+        } finally {
+            if (!handedOver) {
+                finish(true);
+            }
+        }
+    }
+
+    private void finish(boolean failed) {
+        metrics.requestFinished(failed);
+        if (slots != null) {
+            slots.release();
+        }
+    }
+
+    private void acquire() throws IOException {
+        if (slots == null) {
+            return;
+        }
+        try {
+            if (!slots.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                metrics.recordSaturation();
+                throw new IOException("Introspection transport saturated, no slot within " + acquireTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an introspection transport slot", e);
+        }
+    }
+
+    /**
+     * Releases the request's slot when closed, at most once.
+     */
+    private final class SlotHoldingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        SlotHoldingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                delegate.close();
+                return;
+            }
+            boolean failed = isError();
+            try {
+                delegate.close();
+            } finally {
+                finish(failed);
+            }
+        }
+
+        private boolean isError() {
+            try {
+                return delegate.getStatusCode().isError();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+    }
+}
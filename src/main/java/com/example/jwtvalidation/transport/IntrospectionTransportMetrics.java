@@ -0,0 +1,111 @@
+package com.example.jwtvalidation.transport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counters for the introspection HTTP transport.
+ *
+ * Tracks request volume, connections opened (each one a TCP and, for https, a TLS handshake)
+ * and pool saturation. With a healthy keep-alive pool the number of connections opened
+ * stays flat while the request count grows.
+ */
+public final class IntrospectionTransportMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder saturated = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Supplier<PoolSnapshot> poolStats = () -> null;
+
+    /**
+     * Pool occupancy as reported by the underlying connection manager.
+     */
+    public record PoolSnapshot(int leased, int pending, int available, int max) {
+    }
+
+    void requestStarted() {
+        requests.increment();
+        inFlight.incrementAndGet();
+    }
+
+    void requestFinished(boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Records a request that could not get a connection/stream slot in time.
+     */
+    void recordSaturation() {
+        saturated.increment();
+    }
+
+    /**
+     * Records a newly opened connection.
+     */
+    public void recordConnectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    /**
+     * Binds the pool statistics of the transport in use.
+     */
+    public void bindPoolStats(Supplier<PoolSnapshot> poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Connections opened so far.
+     * Stays 0 with the JDK HttpClient transport, which does not report connection events.
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getSaturated() {
+        return saturated.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public PoolSnapshot getPoolSnapshot() {
+        return poolStats.get();
+    }
+
+    /**
+     * All counters as a flat map, for logging or an endpoint.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", getRequests());
+        snapshot.put("failures", getFailures());
+        snapshot.put("inFlight", getInFlight());
+        snapshot.put("connectionsOpened", getConnectionsOpened());
+        snapshot.put("saturated", getSaturated());
+        PoolSnapshot pool = getPoolSnapshot();
+        if (pool != null) {
+            snapshot.put("poolLeased", pool.leased());
+            snapshot.put("poolPending", pool.pending());
+            snapshot.put("poolAvailable", pool.available());
+            snapshot.put("poolMax", pool.max());
+        }
+        return snapshot;
+    }
+}
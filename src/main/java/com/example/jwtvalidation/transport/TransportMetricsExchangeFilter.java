@@ -0,0 +1,60 @@
+package com.example.jwtvalidation.transport;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records WebClient introspection requests in the transport metrics, the reactive counterpart
+ * of {@link BoundedTransportInterceptor}. Concurrency is bounded by the Reactor Netty pool
+ * itself (max connections, pending-acquire timeout); a request that timed out waiting for a
+ * pooled connection is counted as saturation.
+ */
+public class TransportMetricsExchangeFilter implements ExchangeFilterFunction {
+
+    private final IntrospectionTransportMetrics metrics;
+
+    public TransportMetricsExchangeFilter(IntrospectionTransportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            metrics.requestStarted();
+            AtomicBoolean finished = new AtomicBoolean();
+            return next.exchange(request)
+                .doOnSuccess(response -> finish(finished, response == null || response.statusCode().isError()))
+                .doOnError(e -> {
+                    if (isAcquireTimeout(e)) {
+                        metrics.recordSaturation();
+                    }
+                    finish(finished, true);
+                })
+                .doOnCancel(() -> finish(finished, true));
+        });
+    }
+
+    private void finish(AtomicBoolean finished, boolean failed) {
+        if (finished.compareAndSet(false, true)) {
+            metrics.requestFinished(failed);
+        }
+    }
+
+    /**
+     * The pool's pending-acquire timeout, possibly wrapped by WebClient.
+     */
+    private static boolean isAcquireTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.jwtvalidation.authorization;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+class AuthorizationEngineTest {
+
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+        "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private static final Authentication NO_ROLES = new TestingAuthenticationToken("carol", null, "SCOPE_profile");
+    private static final Authentication USER = new TestingAuthenticationToken("alice", null, "ROLE_USER");
+    private static final Authentication ADMIN = new TestingAuthenticationToken("bob", null, "ROLE_ADMIN");
+    private static final Authentication AUDITOR = new TestingAuthenticationToken("dave", null, "ROLE_AUDITOR");
+
+    /**
+     * The rules of AuthorizationConfig.
+     */
+    private final AuthorizationEngine engine = AuthorizationEngine.builder(RoleBits.defaults())
+        .permitAll("/public/**", "/health", "/actuator/**")
+        .hasRole("/admin/**", "ADMIN")
+        .hasAnyRole("/user/**", "USER", "ADMIN")
+        .build();
+
+    /**
+     * The same rules as the request matchers the security configurations used before.
+     */
+    private final RequestMatcherDelegatingAuthorizationManager requestMatchers =
+        RequestMatcherDelegatingAuthorizationManager.builder()
+            .add(antMatcher("/public/**"), (authentication, context) -> new AuthorizationDecision(true))
+            .add(antMatcher("/health"), (authentication, context) -> new AuthorizationDecision(true))
+            .add(antMatcher("/actuator/**"), (authentication, context) -> new AuthorizationDecision(true))
+            .add(antMatcher("/admin/**"), AuthorityAuthorizationManager.hasRole("ADMIN"))
+            .add(antMatcher("/user/**"), AuthorityAuthorizationManager.hasAnyRole("USER", "ADMIN"))
+            .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+            .build();
+
+    @Test
+    void decisionsMatchRequestMatchers() {
+        List<String> paths = List.of("/", "/public", "/public/docs/a", "/health", "/health/", "/healthz",
+            "/actuator/health", "/admin", "/admin/", "/admin/users", "/admin/users/", "/administrator",
+            "/user", "/user/profile", "/users", "/api/hello", "/token-info");
+        List<Authentication> principals = Arrays.asList(null, ANONYMOUS, NO_ROLES, USER, ADMIN, AUDITOR);
+
+        List<String> mismatches = new ArrayList<>();
+        for (String path : paths) {
+            for (Authentication principal : principals) {
+                MockHttpServletRequest request = request(path);
+                boolean expected = requestMatchers.check(() -> principal, request).isGranted();
+                boolean actual = engine.check(() -> principal, new RequestAuthorizationContext(request)).isGranted();
+                if (expected != actual) {
+                    mismatches.add(path + " as " + (principal != null ? principal.getName() : "none"));
+                }
+            }
+        }
+
+        assertThat(mismatches).isEmpty();
+    }
+
+    @Test
+    void unmatchedPathsNeedAuthenticatedPrincipal() {
+        assertThat(engine.isGranted("/api/hello", () -> null)).isFalse();
+        assertThat(engine.isGranted("/api/hello", () -> ANONYMOUS)).isFalse();
+        assertThat(engine.isGranted("/api/hello", () -> NO_ROLES)).isTrue();
+    }
+
+    @Test
+    void unauthenticatedTokenIsDenied() {
+        TestingAuthenticationToken admin = new TestingAuthenticationToken("bob", null, "ROLE_ADMIN");
+        admin.setAuthenticated(false);
+
+        assertThat(engine.isGranted("/admin/users", () -> admin)).isFalse();
+    }
+
+    @Test
+    void permittedPathNeverResolvesAuthentication() {
+        Supplier<Authentication> unresolvable = () -> {
+            throw new AssertionError("authentication resolved");
+        };
+
+        assertThat(engine.isGranted("/public/docs", unresolvable)).isTrue();
+        assertThat(engine.isGranted("/health", unresolvable)).isTrue();
+    }
+
+    @Test
+    void roleRulesCompareRoleBits() {
+        assertThat(engine.isGranted("/admin/users", () -> USER)).isFalse();
+        assertThat(engine.isGranted("/admin/users", () -> ADMIN)).isTrue();
+        assertThat(engine.isGranted("/user/profile", () -> USER)).isTrue();
+        assertThat(engine.isGranted("/user/profile", () -> ADMIN)).isTrue();
+        assertThat(engine.isGranted("/user/profile", () -> AUDITOR)).isFalse();
+    }
+
+    @Test
+    void trailingSlashDoesNotEscapeRoleRule() {
+        assertThat(engine.isGranted("/admin/", () -> USER)).isFalse();
+        assertThat(engine.isGranted("/admin/users/", () -> USER)).isFalse();
+        assertThat(engine.isGranted("/health/", () -> ANONYMOUS)).isFalse();
+    }
+
+    @Test
+    void roleWithoutBitIsCheckedByName() {
+        AuthorizationEngine withAuditor = AuthorizationEngine.builder(RoleBits.defaults())
+            .hasRole("/audit/**", "AUDITOR")
+            .build();
+
+        assertThat(withAuditor.isGranted("/audit/log", () -> AUDITOR)).isTrue();
+        assertThat(withAuditor.isGranted("/audit/log", () -> ADMIN)).isFalse();
+        assertThat(withAuditor.snapshot().get("nameChecks")).isEqualTo(2L);
+    }
+
+    @Test
+    void rolesBeyondSixtyFourStillGrantByName() {
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            roles.add("R" + i);
+        }
+        AuthorizationEngine large = AuthorizationEngine.builder(new RoleBits(roles))
+            .hasRole("/first/**", "R0")
+            .hasRole("/last/**", "R69")
+            .hasAnyRole("/either/**", "R1", "R68")
+            .build();
+        Authentication r0 = new TestingAuthenticationToken("a", null, "ROLE_R0");
+        Authentication r68 = new TestingAuthenticationToken("b", null, "ROLE_R68");
+        Authentication r69 = new TestingAuthenticationToken("c", null, "ROLE_R69");
+
+        assertThat(large.isGranted("/first/x", () -> r0)).isTrue();
+        assertThat(large.isGranted("/first/x", () -> r69)).isFalse();
+        assertThat(large.isGranted("/last/x", () -> r69)).isTrue();
+        assertThat(large.isGranted("/last/x", () -> r68)).isFalse();
+        assertThat(large.isGranted("/either/x", () -> r68)).isTrue();
+        assertThat(large.isGranted("/either/x", () -> r0)).isFalse();
+    }
+
+    @Test
+    void servletPathIncludesPathInfo() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/users");
+        request.setServletPath("/admin");
+        request.setPathInfo("/users");
+
+        assertThat(engine.check(() -> USER, new RequestAuthorizationContext(request)).isGranted()).isFalse();
+        assertThat(engine.check(() -> ADMIN, new RequestAuthorizationContext(request)).isGranted()).isTrue();
+    }
+
+    @Test
+    void reactiveMatchesDecodedPath() {
+        assertThat(reactive("/%61dmin/users", USER)).isFalse();
+        assertThat(reactive("/%61dmin/users", ADMIN)).isTrue();
+        assertThat(reactive("/admin/users/", USER)).isFalse();
+        assertThat(reactive("/public%2Fx", null)).isFalse();
+    }
+
+    @Test
+    void reactiveMatchesServletDecisions() {
+        assertThat(reactive("/public/docs", null)).isTrue();
+        assertThat(reactive("/api/hello", null)).isFalse();
+        assertThat(reactive("/api/hello", ANONYMOUS)).isFalse();
+        assertThat(reactive("/api/hello", USER)).isTrue();
+        assertThat(reactive("/user/profile", ADMIN)).isTrue();
+        assertThat(reactive("/user/profile", AUDITOR)).isFalse();
+    }
+
+    private boolean reactive(String path, Authentication principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+        Mono<Authentication> authentication = principal != null ? Mono.just(principal) : Mono.empty();
+        return engine.reactive().check(authentication, new AuthorizationContext(exchange)).block().isGranted();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.jwtvalidation.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathRuleTrieTest {
+
+    @Test
+    void literalPatternMatchesOnlyItsPath() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/health", "health");
+
+        assertThat(trie.match("/health")).isEqualTo("health");
+        assertThat(trie.match("/healthz")).isNull();
+        assertThat(trie.match("/health/live")).isNull();
+        assertThat(trie.match("/")).isNull();
+    }
+
+    @Test
+    void doubleWildcardMatchesAnyRemainderIncludingNone() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/public/**", "public");
+
+        assertThat(trie.match("/public")).isEqualTo("public");
+        assertThat(trie.match("/public/a")).isEqualTo("public");
+        assertThat(trie.match("/public/a/b/c")).isEqualTo("public");
+        assertThat(trie.match("/publicity")).isNull();
+    }
+
+    @Test
+    void singleWildcardMatchesExactlyOneSegment() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/api/*/items", "items");
+
+        assertThat(trie.match("/api/v1/items")).isEqualTo("items");
+        assertThat(trie.match("/api/items")).isNull();
+        assertThat(trie.match("/api/v1/v2/items")).isNull();
+    }
+
+    @Test
+    void firstAddedRuleWinsOverMoreSpecificLaterRule() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/admin/**", "admin");
+        trie.add("/admin/reports", "reports");
+
+        assertThat(trie.match("/admin/reports")).isEqualTo("admin");
+    }
+
+    @Test
+    void specificRuleAddedFirstWinsOverWildcards() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/api/v1/status", "status");
+        trie.add("/api/*/status", "any-version");
+        trie.add("/api/**", "api");
+
+        assertThat(trie.match("/api/v1/status")).isEqualTo("status");
+        assertThat(trie.match("/api/v2/status")).isEqualTo("any-version");
+        assertThat(trie.match("/api/v2/other")).isEqualTo("api");
+        assertThat(trie.match("/api")).isEqualTo("api");
+    }
+
+    @Test
+    void shorterDoubleWildcardAddedFirstWinsOverDeeperOne() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/a/**", "outer");
+        trie.add("/a/b/**", "inner");
+
+        assertThat(trie.match("/a/b/c")).isEqualTo("outer");
+    }
+
+    @Test
+    void deeperDoubleWildcardAddedFirstWinsWithinItsSubtree() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/a/b/**", "inner");
+        trie.add("/a/**", "outer");
+
+        assertThat(trie.match("/a/b/c")).isEqualTo("inner");
+        assertThat(trie.match("/a/c")).isEqualTo("outer");
+    }
+
+    @Test
+    void duplicatePatternKeepsFirstRule() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/user/**", "first");
+        trie.add("/user/**", "second");
+
+        assertThat(trie.match("/user/me")).isEqualTo("first");
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    void repeatedSlashesAreIgnored() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/health", "health");
+        trie.add("/admin/**", "admin");
+
+        assertThat(trie.match("//health")).isEqualTo("health");
+        assertThat(trie.match("/admin//users")).isEqualTo("admin");
+    }
+
+    @Test
+    void trailingSlashOnlyMatchesDoubleWildcard() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/health", "health");
+        trie.add("/api/*", "api");
+        trie.add("/admin/**", "admin");
+
+        assertThat(trie.match("/health/")).isNull();
+        assertThat(trie.match("/api/v1/")).isNull();
+        assertThat(trie.match("/admin/")).isEqualTo("admin");
+        assertThat(trie.match("/admin/users/")).isEqualTo("admin");
+        assertThat(trie.match(List.of("health", ""))).isNull();
+        assertThat(trie.match(List.of("admin", "users", ""))).isEqualTo("admin");
+    }
+
+    @Test
+    void percentEncodedPathIsNotDecoded() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/admin/**", "admin");
+
+        // Callers pass the decoded path (servlet) or decoded segments (WebFlux)
+        assertThat(trie.match("/%61dmin/users")).isNull();
+        assertThat(trie.match(List.of("admin", "users"))).isEqualTo("admin");
+    }
+
+    @Test
+    void segmentListMatchesLikePath() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/api/*/items", "items");
+        trie.add("/public/**", "public");
+
+        assertThat(trie.match(List.of("api", "v1", "items"))).isEqualTo("items");
+        assertThat(trie.match(List.of("", "public"))).isEqualTo("public");
+        assertThat(trie.match(List.of("api", "items"))).isNull();
+    }
+
+    @Test
+    void decodedSlashStaysInsideOneSegment() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+        trie.add("/files/*", "file");
+
+        assertThat(trie.match(List.of("files", "a/b"))).isEqualTo("file");
+        assertThat(trie.match("/files/a/b")).isNull();
+    }
+
+    @Test
+    void rejectsUnsupportedPatterns() {
+        PathRuleTrie<String> trie = new PathRuleTrie<>();
+
+        assertThatThrownBy(() -> trie.add("/api/**/items", "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.add("/api/v*", "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.add("/users/{id}", "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
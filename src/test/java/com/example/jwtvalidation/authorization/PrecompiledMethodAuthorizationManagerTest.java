@@ -0,0 +1,109 @@
+package com.example.jwtvalidation.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrecompiledMethodAuthorizationManagerTest {
+
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+        "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private static final Authentication USER = new TestingAuthenticationToken("alice", null, "ROLE_USER");
+    private static final Authentication ADMIN = new TestingAuthenticationToken("bob", null, "ROLE_ADMIN");
+    private static final Authentication AUDITOR = new TestingAuthenticationToken("dave", null, "ROLE_AUDITOR");
+    private static final Authentication SCOPED = new TestingAuthenticationToken("erin", null, "SCOPE_reports", "ROLE_USER");
+
+    /**
+     * Methods without their own annotation get the class-level one.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    static class Reports {
+
+        public String anyMethod() {
+            return "";
+        }
+
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public String userMethod() {
+            return "";
+        }
+
+        @PreAuthorize("hasRole('AUDITOR')")
+        public String unknownRole() {
+            return "";
+        }
+
+        @PreAuthorize("hasAuthority('ROLE_USER')")
+        public String authority() {
+            return "";
+        }
+
+        @PreAuthorize("hasRole('USER') and hasAuthority('SCOPE_reports')")
+        public String expression() {
+            return "";
+        }
+    }
+
+    /**
+     * Scans a package without components, so every method is resolved on its first call.
+     */
+    private final PrecompiledMethodAuthorizationManager manager =
+        new PrecompiledMethodAuthorizationManager(RoleBits.defaults(), "com.example.jwtvalidation.authorization");
+    private final PreAuthorizeAuthorizationManager spring = new PreAuthorizeAuthorizationManager();
+
+    @Test
+    void decisionsMatchPreAuthorize() throws Exception {
+        List<Authentication> principals = List.of(ANONYMOUS, USER, ADMIN, AUDITOR, SCOPED);
+        List<String> mismatches = new ArrayList<>();
+        for (String name : List.of("anyMethod", "userMethod", "unknownRole", "authority", "expression")) {
+            MethodInvocation invocation = invocation(name);
+            for (Authentication principal : principals) {
+                if (isGranted(spring.check(() -> principal, invocation))
+                        != isGranted(manager.check(() -> principal, invocation))) {
+                    mismatches.add(name + " as " + principal.getName());
+                }
+            }
+        }
+
+        assertThat(mismatches).isEmpty();
+    }
+
+    @Test
+    void methodAnnotationOverridesClassAnnotation() throws Exception {
+        assertThat(manager.check(() -> USER, invocation("userMethod")).isGranted()).isTrue();
+        assertThat(manager.check(() -> USER, invocation("anyMethod")).isGranted()).isFalse();
+        assertThat(manager.check(() -> ADMIN, invocation("anyMethod")).isGranted()).isTrue();
+    }
+
+    @Test
+    void onlyKnownRoleExpressionsArePrecompiled() throws Exception {
+        for (String name : List.of("anyMethod", "userMethod", "unknownRole", "authority", "expression")) {
+            manager.check(() -> ADMIN, invocation(name));
+        }
+
+        assertThat(manager.snapshot().get("methods")).isEqualTo(5);
+        // anyMethod, userMethod and authority; unknownRole and expression are left to SpEL
+        assertThat(manager.snapshot().get("precompiled")).isEqualTo(3L);
+        assertThat(manager.snapshot().get("fallbackChecks")).isEqualTo(2L);
+    }
+
+    private static boolean isGranted(AuthorizationDecision decision) {
+        return decision != null && decision.isGranted();
+    }
+
+    private static MethodInvocation invocation(String name) throws NoSuchMethodException {
+        return new SimpleMethodInvocation(new Reports(), Reports.class.getMethod(name));
+    }
+}
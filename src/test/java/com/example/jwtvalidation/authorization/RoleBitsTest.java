@@ -0,0 +1,64 @@
+package com.example.jwtvalidation.authorization;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoleBitsTest {
+
+    @Test
+    void assignsOneBitPerRoleWithOrWithoutPrefix() {
+        RoleBits roleBits = RoleBits.of("USER, ROLE_ADMIN,,USER");
+
+        assertThat(roleBits.size()).isEqualTo(2);
+        assertThat(roleBits.bitOf("ROLE_USER")).isEqualTo(1L);
+        assertThat(roleBits.bitOf("ROLE_ADMIN")).isEqualTo(2L);
+        assertThat(roleBits.bitOf("USER")).isEqualTo(0L);
+    }
+
+    @Test
+    void unknownAuthorityHasNoBit() {
+        RoleBits roleBits = RoleBits.defaults();
+
+        assertThat(roleBits.bitOf("ROLE_AUDITOR")).isEqualTo(0L);
+        assertThat(roleBits.maskOf(List.of(new SimpleGrantedAuthority("ROLE_AUDITOR"),
+            new SimpleGrantedAuthority("SCOPE_profile")))).isEqualTo(0L);
+    }
+
+    @Test
+    void maskOfCombinesInternedAndPlainAuthorities() {
+        RoleBits roleBits = RoleBits.defaults();
+
+        long mask = roleBits.maskOf(List.of(roleBits.authority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")));
+
+        assertThat(mask).isEqualTo(roleBits.bitOf("ROLE_USER") | roleBits.bitOf("ROLE_ADMIN"));
+    }
+
+    @Test
+    void rolesBeyondSixtyFourAreUnmapped() {
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            roles.add("R" + i);
+        }
+        RoleBits roleBits = new RoleBits(roles);
+
+        assertThat(roleBits.size()).isEqualTo(64);
+        assertThat(roleBits.bitOf("ROLE_R63")).isEqualTo(Long.MIN_VALUE);
+        assertThat(roleBits.bitOf("ROLE_R64")).isEqualTo(0L);
+        assertThat(roleBits.unmapped()).containsExactly(
+            "ROLE_R64", "ROLE_R65", "ROLE_R66", "ROLE_R67", "ROLE_R68", "ROLE_R69");
+    }
+
+    @Test
+    void maskedAuthorityEqualsByName() {
+        RoleBits roleBits = RoleBits.defaults();
+
+        assertThat(roleBits.authority("ROLE_USER")).isEqualTo(roleBits.authority("ROLE_USER"));
+        assertThat(roleBits.authority("ROLE_USER").getAuthority()).isEqualTo("ROLE_USER");
+        assertThat(roleBits.authority("SCOPE_email").bit()).isEqualTo(0L);
+    }
+}
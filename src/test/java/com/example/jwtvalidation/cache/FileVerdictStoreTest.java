@@ -0,0 +1,97 @@
+package com.example.jwtvalidation.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileVerdictStoreTest {
+
+    private static final long TTL_SECONDS = 3600;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deliversInvalidationToOtherReplica() {
+        FileVerdictStore writer = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        FileVerdictStore reader = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        List<TokenKey> received = new ArrayList<>();
+        reader.addInvalidationListener(received::add);
+        TokenKey key = TokenKey.of("token-a");
+
+        writer.invalidate(key);
+        reader.poll();
+        reader.poll();
+
+        assertThat(received).containsExactly(key);
+    }
+
+    @Test
+    void deliversInvalidateAllAsNullKey() {
+        FileVerdictStore writer = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        FileVerdictStore reader = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        List<TokenKey> received = new ArrayList<>();
+        reader.addInvalidationListener(received::add);
+
+        writer.invalidateAll();
+        reader.poll();
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0)).isNull();
+    }
+
+    @Test
+    void tornAppendIsDeliveredOnceComplete() throws IOException {
+        FileVerdictStore reader = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        List<TokenKey> received = new ArrayList<>();
+        reader.addInvalidationListener(received::add);
+        TokenKey key = TokenKey.of("token-b");
+        String hex = key.toHex();
+        Path log = currentLog();
+
+        append(log, hex.substring(0, 20));
+        reader.poll();
+        assertThat(received).isEmpty();
+
+        append(log, hex.substring(20) + "\n");
+        reader.poll();
+        assertThat(received).containsExactly(key);
+    }
+
+    @Test
+    void sweepDeletesLogsOlderThanPreviousGeneration() throws IOException {
+        FileVerdictStore store = new FileVerdictStore(directory, TTL_SECONDS, 1000);
+        long current = currentGeneration();
+        Path old = directory.resolve("invalidations-" + (current - 2) + ".log");
+        Path previous = directory.resolve("invalidations-" + (current - 1) + ".log");
+        append(old, "*\n");
+        append(previous, "*\n");
+
+        store.sweep();
+
+        assertThat(Files.exists(old)).isFalse();
+        assertThat(Files.exists(previous)).isTrue();
+    }
+
+    private Path currentLog() {
+        return directory.resolve("invalidations-" + currentGeneration() + ".log");
+    }
+
+    private static long currentGeneration() {
+        return System.currentTimeMillis() / TimeUnit.SECONDS.toMillis(TTL_SECONDS);
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.US_ASCII, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.jwtvalidation.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveSingleFlightTest {
+
+    private final ReactiveSingleFlight<String, String> singleFlight = new ReactiveSingleFlight<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Sinks.One<String> result = Sinks.one();
+
+    @Test
+    void concurrentSubscribersShareOneLoad() throws Exception {
+        CompletableFuture<String> first = singleFlight.execute("k", this::load).toFuture();
+        CompletableFuture<String> second = singleFlight.execute("k", this::load).toFuture();
+
+        result.tryEmitValue("value");
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    void failureIsPropagatedToEverySubscriber() {
+        IllegalStateException failure = new IllegalStateException("idp down");
+        CompletableFuture<String> first = singleFlight.execute("k", this::load).toFuture();
+        CompletableFuture<String> second = singleFlight.execute("k", this::load).toFuture();
+
+        result.tryEmitError(failure);
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedCallIsRemovedSoNextCallRetries() {
+        assertThatThrownBy(() -> singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return Mono.<String>error(new IllegalStateException("idp down"));
+        }).block()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+        assertThat(singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return Mono.just("value");
+        }).block()).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loaderThrowingIsPropagatedAndRemoved() {
+        assertThatThrownBy(() -> singleFlight.execute("k", () -> {
+            throw new IllegalStateException("bad request");
+        }).block()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    void cancelledSubscriberDoesNotCancelOthers() throws Exception {
+        Disposable cancelled = singleFlight.execute("k", this::load).subscribe();
+        CompletableFuture<String> remaining = singleFlight.execute("k", this::load).toFuture();
+
+        cancelled.dispose();
+        result.tryEmitValue("value");
+
+        assertThat(remaining.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void emptyLoaderCompletesEmpty() {
+        assertThat(singleFlight.execute("k", Mono::empty).block()).isNull();
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+    }
+
+    private Mono<String> load() {
+        loads.incrementAndGet();
+        return result.asMono();
+    }
+}
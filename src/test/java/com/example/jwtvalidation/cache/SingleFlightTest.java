@@ -0,0 +1,113 @@
+package com.example.jwtvalidation.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            awaitRelease();
+            return "value";
+        }));
+        awaitInFlight();
+        CompletableFuture<String> second = joinInFlight(() -> singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    void failureIsRethrownToEveryWaiter() throws Exception {
+        IllegalStateException failure = new IllegalStateException("idp down");
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", () -> {
+            awaitRelease();
+            throw failure;
+        }));
+        awaitInFlight();
+        CompletableFuture<String> second = joinInFlight(() -> singleFlight.execute("k", () -> "other"));
+
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(failure);
+    }
+
+    @Test
+    void failedCallIsRemovedSoNextCallRetries() {
+        assertThatThrownBy(() -> singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("idp down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.inFlightCount()).isEqualTo(0);
+        assertThat(singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return "value";
+        })).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        assertThat(singleFlight.execute("a", () -> "1")).isEqualTo("1");
+        assertThat(singleFlight.execute("b", () -> "2")).isEqualTo("2");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.inFlightCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Starts a caller and returns once it is parked waiting for the call in flight.
+     */
+    private static CompletableFuture<String> joinInFlight(Supplier<String> call) throws InterruptedException {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                result.complete(call.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.jwtvalidation.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientCredentialsTokenManagerTest {
+
+    private static final String AUDIENCE = "orders";
+
+    private final FakeTokenEndpoint endpoint = new FakeTokenEndpoint();
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void refreshesInBackgroundAtConfiguredFractionOfLifetime() throws Exception {
+        ClientCredentialsTokenManager manager = manager(0.75, 4);
+        endpoint.respond(() -> token("first", 100));
+        endpoint.respond(() -> token("second", 100));
+
+        assertThat(manager.getToken(AUDIENCE)).isEqualTo("first");
+
+        // 75% of 100 s, less up to 5% of the lifetime as jitter
+        Scheduled refresh = scheduler.next();
+        assertThat(refresh.delayMs()).isBetween(70_000L, 75_000L);
+
+        refresh.task().run();
+
+        assertThat(manager.getToken(AUDIENCE)).isEqualTo("second");
+        assertThat(endpoint.calls()).isEqualTo(2);
+        Map<String, Object> snapshot = manager.snapshot();
+        assertThat(snapshot.get("blockingFetches")).isEqualTo(1L);
+        assertThat(snapshot.get("refreshes")).isEqualTo(1L);
+        assertThat(snapshot.get("hits")).isEqualTo(1L);
+        assertThat(scheduler.next().delayMs()).isBetween(70_000L, 75_000L);
+    }
+
+    @Test
+    void concurrentFirstCallersShareOneFetch() throws Exception {
+        ClientCredentialsTokenManager manager = manager(0.75, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        endpoint.respond(() -> {
+            await(release);
+            return token("shared", 100);
+        });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> manager.getToken(AUDIENCE));
+        waitUntil(() -> endpoint.calls() == 1);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> manager.getToken(AUDIENCE));
+        waitUntil(() -> (Long) manager.snapshot().get("blockingFetches") == 2);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+        assertThat(endpoint.calls()).isEqualTo(1);
+        assertThat(manager.snapshot().get("fetches")).isEqualTo(1L);
+    }
+
+    @Test
+    void retriesFailedFetchWithBackoff() throws Exception {
+        ClientCredentialsTokenManager manager = manager(0.75, 4);
+        endpoint.respond(() -> {
+            throw new ResourceAccessException("connection refused");
+        });
+        endpoint.respond(() -> {
+            throw new ResourceAccessException("connection refused");
+        });
+        endpoint.respond(() -> token("recovered", 100));
+
+        CompletableFuture<String> caller = CompletableFuture.supplyAsync(() -> manager.getToken(AUDIENCE));
+
+        // Full jitter: uniform up to base * 2^(attempt - 1)
+        Scheduled firstRetry = scheduler.next();
+        assertThat(firstRetry.delayMs()).isBetween(0L, 100L);
+        firstRetry.task().run();
+        Scheduled secondRetry = scheduler.next();
+        assertThat(secondRetry.delayMs()).isBetween(0L, 200L);
+        secondRetry.task().run();
+
+        assertThat(caller.get(5, TimeUnit.SECONDS)).isEqualTo("recovered");
+        Map<String, Object> snapshot = manager.snapshot();
+        assertThat(snapshot.get("retries")).isEqualTo(2L);
+        assertThat(snapshot.get("fetchFailures")).isEqualTo(2L);
+        assertThat(snapshot.get("fetches")).isEqualTo(3L);
+    }
+
+    @Test
+    void failsOnceMaxAttemptsAreSpent() throws Exception {
+        ClientCredentialsTokenManager manager = manager(0.75, 2);
+        endpoint.respond(() -> {
+            throw new ResourceAccessException("connection refused");
+        });
+        endpoint.respond(() -> {
+            throw new ResourceAccessException("connection refused");
+        });
+
+        CompletableFuture<String> caller = CompletableFuture.supplyAsync(() -> manager.getToken(AUDIENCE));
+        scheduler.next().task().run();
+
+        assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("after 2 attempts");
+        assertThat(manager.snapshot().get("retries")).isEqualTo(1L);
+    }
+
+    private ClientCredentialsTokenManager manager(double refreshFraction, int maxAttempts) {
+        return new ClientCredentialsTokenManager(endpoint, scheduler, "http://idp.example/token",
+            "gateway", "secret", "", refreshFraction, 10, maxAttempts, 100, 5000, 600);
+    }
+
+    private static Map<String, Object> token(String value, long expiresIn) {
+        return Map.of("access_token", value, "expires_in", expiresIn);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Answers token requests from a script, one response per call.
+     */
+    private static final class FakeTokenEndpoint extends RestTemplate {
+        private final BlockingQueue<Supplier<Map<String, Object>>> responses = new LinkedBlockingQueue<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        void respond(Supplier<Map<String, Object>> response) {
+            responses.add(response);
+        }
+
+        int calls() {
+            return calls.get();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+            calls.incrementAndGet();
+            Supplier<Map<String, Object>> response = responses.poll();
+            if (response == null) {
+                throw new AssertionError("Unexpected token request");
+            }
+            return (ResponseEntity<T>) ResponseEntity.ok(response.get());
+        }
+    }
+
+    private record Scheduled(Runnable task, long delayMs) {
+    }
+
+    /**
+     * Records scheduled refreshes and retries instead of running them, so a test runs each one
+     * when it chooses and never waits on the wall clock.
+     */
+    private static final class ManualScheduler extends ScheduledThreadPoolExecutor {
+        private final BlockingQueue<Scheduled> scheduled = new LinkedBlockingQueue<>();
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            scheduled.add(new Scheduled(command, unit.toMillis(delay)));
+            return null;
+        }
+
+        Scheduled next() throws InterruptedException {
+            Scheduled next = scheduled.poll(5, TimeUnit.SECONDS);
+            assertThat(next).isNotNull();
+            return next;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.jwtvalidation.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceToServiceCallsTest {
+
+    private final ServiceToServiceCalls calls = new ServiceToServiceCalls(
+        "orders=http://orders.example/api", 5, 1000, 1000, 30,
+        false, "", "", "", 30, 100,
+        new StaticListableBeanFactory().getBeanProvider(ClientCredentialsTokenManager.class));
+
+    @AfterEach
+    void tearDown() throws IOException {
+        RequestContextHolder.resetRequestAttributes();
+        calls.shutdown();
+    }
+
+    @Test
+    void relaysResourceServerToken() {
+        Jwt jwt = Jwt.withTokenValue("compact.jwt.value").header("alg", "RS256").subject("alice").build();
+
+        assertThat(calls.downstreamToken("orders", null, new JwtAuthenticationToken(jwt))).isEqualTo("compact.jwt.value");
+    }
+
+    @Test
+    void credentialsAreNeverRelayed() {
+        Authentication caller = new UsernamePasswordAuthenticationToken(
+            "alice", "raw-token", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        assertThat(ServiceToServiceCalls.bearer(caller)).isNull();
+        assertThat(calls.downstreamToken("orders", null, caller)).isNull();
+    }
+
+    @Test
+    void relayTokenIsReadFromTheCurrentRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(RelayToken.ATTRIBUTE, "request-token");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Authentication caller = new UsernamePasswordAuthenticationToken(
+            "alice", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        assertThat(RelayToken.current()).isEqualTo("request-token");
+        assertThat(calls.downstreamToken("orders", RelayToken.current(), caller)).isEqualTo("request-token");
+    }
+
+    @Test
+    void noRelayTokenOutsideARequest() {
+        assertThat(RelayToken.current()).isNull();
+    }
+}
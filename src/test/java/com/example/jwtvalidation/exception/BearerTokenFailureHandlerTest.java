@@ -0,0 +1,62 @@
+package com.example.jwtvalidation.exception;
+
+import com.example.jwtvalidation.resilience.IntrospectionUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BearerTokenFailureHandlerTest {
+
+    private final BearerTokenFailureHandler handler =
+        new BearerTokenFailureHandler(new ObjectMapper().findAndRegisterModules());
+
+    /**
+     * What OpaqueTokenAuthenticationProvider throws when the introspector fails this way.
+     */
+    @Test
+    void unavailableIdentityProviderIs503WithRetryAfter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AuthenticationServiceException wrapped = new AuthenticationServiceException(
+            "introspection failed", new IntrospectionUnavailableException("Identity provider circuit is open", 7));
+
+        handler.onAuthenticationFailure(new MockHttpServletRequest(), response, wrapped);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+        assertThat(response.getContentAsString()).contains("IDP_UNAVAILABLE");
+    }
+
+    @Test
+    void invalidTokenIsBearer401() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        handler.onAuthenticationFailure(new MockHttpServletRequest(), response,
+            new InvalidBearerTokenException("Token expired"));
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getHeader(HttpHeaders.WWW_AUTHENTICATE)).startsWith("Bearer");
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNull();
+    }
+
+    @Test
+    void otherServiceFailuresAreRethrown() {
+        AuthenticationServiceException failure = new AuthenticationServiceException("unexpected");
+
+        assertThatThrownBy(() -> handler.onAuthenticationFailure(
+            new MockHttpServletRequest(), new MockHttpServletResponse(), failure))
+            .isSameAs(failure);
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() {
+        assertThat(new IntrospectionUnavailableException("busy", 0).getRetryAfterSeconds()).isEqualTo(1L);
+        assertThat(new IntrospectionUnavailableException("busy").getRetryAfterSeconds()).isEqualTo(1L);
+    }
+}
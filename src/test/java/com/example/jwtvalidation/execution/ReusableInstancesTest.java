@@ -0,0 +1,57 @@
+package com.example.jwtvalidation.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReusableInstancesTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final ReusableInstances<StringBuilder> instances = new ReusableInstances<>(() -> {
+        created.incrementAndGet();
+        return new StringBuilder();
+    }, 2);
+
+    @Test
+    void platformThreadKeepsItsInstance() throws Exception {
+        StringBuilder first = instances.apply(sb -> sb);
+        StringBuilder second = instances.apply(sb -> sb);
+        StringBuilder other = CompletableFuture.supplyAsync(() -> instances.apply(sb -> sb)).get(5, TimeUnit.SECONDS);
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(instances.pooled()).isZero();
+    }
+
+    @Test
+    void pooledInstanceIsReturnedAndReused() {
+        StringBuilder first = instances.applyPooled(sb -> sb);
+        StringBuilder second = instances.applyPooled(sb -> sb);
+
+        assertThat(second).isSameAs(first);
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(instances.pooled()).isEqualTo(1);
+    }
+
+    @Test
+    void poolKeepsAtMostItsSize() {
+        instances.applyPooled(a -> instances.applyPooled(b -> instances.applyPooled(c -> c)));
+
+        assertThat(created.get()).isEqualTo(3);
+        assertThat(instances.pooled()).isEqualTo(2);
+    }
+
+    @Test
+    void failedActionDoesNotReturnInstance() {
+        assertThatThrownBy(() -> instances.applyPooled(sb -> {
+            throw new IllegalStateException("mid-update");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(instances.pooled()).isZero();
+    }
+}
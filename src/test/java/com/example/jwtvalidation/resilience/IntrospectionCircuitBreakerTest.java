@@ -0,0 +1,178 @@
+package com.example.jwtvalidation.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class IntrospectionCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long OPEN_MS = 50;
+
+    private final ManualClock clock = new ManualClock();
+
+    /**
+     * Window of 10, at least 4 calls, opens at 50% errors or p90 >= 200 ms, two probes to close.
+     */
+    private final IntrospectionCircuitBreaker breaker =
+        new IntrospectionCircuitBreaker(true, 10, 4, 0.5, 90, 200, OPEN_MS, OPEN_MS * 4, 1, 2, clock);
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        record(FAST, true);
+        record(FAST, true);
+        record(FAST, true);
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        record(FAST, false);
+        record(FAST, false);
+        record(FAST, true);
+        record(FAST, true);
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.call(() -> "never"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+        assertThat(breaker.getRejected()).isEqualTo(1L);
+    }
+
+    @Test
+    void opensWhenLatencyPercentileIsSlow() {
+        record(FAST, false);
+        record(FAST, false);
+        record(FAST, false);
+        record(SLOW, false);
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void inactiveTokenCountsAsSuccess() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new BadOpaqueTokenException("inactive");
+            })).isInstanceOf(BadOpaqueTokenException.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void openCircuitReportsRemainingSecondsAsRetryAfter() {
+        IntrospectionCircuitBreaker longOpen =
+            new IntrospectionCircuitBreaker(true, 4, 4, 0.5, 90, 200, 30_000, 60_000, 1, 1, clock);
+        for (int i = 0; i < 4; i++) {
+            longOpen.onComplete(longOpen.acquirePermission(), FAST, new IllegalStateException("down"));
+        }
+
+        IntrospectionUnavailableException rejected =
+            catchThrowableOfType(longOpen::acquirePermission, IntrospectionUnavailableException.class);
+
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(30L);
+
+        clock.advanceMillis(29_500);
+        rejected = catchThrowableOfType(longOpen::acquirePermission, IntrospectionUnavailableException.class);
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(1L);
+    }
+
+    @Test
+    void halfOpenAfterOpenDurationAdmitsOneProbe() {
+        open();
+        clock.advanceMillis(OPEN_MS - 1);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(IntrospectionUnavailableException.class);
+        clock.advanceMillis(1);
+
+        assertThat(breaker.acquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(IntrospectionUnavailableException.class);
+    }
+
+    @Test
+    void enoughGoodProbesCloseTheCircuit() {
+        open();
+        clock.advanceMillis(OPEN_MS);
+
+        breaker.onComplete(breaker.acquirePermission(), FAST, null);
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.HALF_OPEN);
+        breaker.onComplete(breaker.acquirePermission(), FAST, null);
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.CLOSED);
+        assertThat(breaker.acquirePermission()).isFalse();
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() {
+        open();
+        clock.advanceMillis(OPEN_MS);
+
+        breaker.onComplete(breaker.acquirePermission(), FAST, new IllegalStateException("still down"));
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot().get("openDurationMs")).isEqualTo(OPEN_MS * 2);
+    }
+
+    @Test
+    void slowProbeReopensUpToMaxDuration() {
+        open();
+        long expected = OPEN_MS;
+        for (int i = 0; i < 3; i++) {
+            clock.advanceMillis(expected);
+            breaker.onComplete(breaker.acquirePermission(), SLOW, null);
+            expected = Math.min(expected * 2, OPEN_MS * 4);
+            assertThat(breaker.snapshot().get("openDurationMs")).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void callIsTimedOnTheClock() {
+        for (int i = 0; i < 4; i++) {
+            breaker.call(() -> {
+                clock.advanceMillis(250);
+                return "slow";
+            });
+        }
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void callStartedBeforeOpeningIsNotRecorded() {
+        boolean probe = breaker.acquirePermission();
+        open();
+
+        breaker.onComplete(probe, FAST, null);
+
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        IntrospectionCircuitBreaker disabled = IntrospectionCircuitBreaker.disabled();
+        for (int i = 0; i < 10; i++) {
+            disabled.onComplete(disabled.acquirePermission(), SLOW, new IllegalStateException("down"));
+        }
+
+        assertThat(disabled.getState()).isEqualTo(IntrospectionCircuitBreaker.State.CLOSED);
+        assertThat(disabled.call(() -> "value")).isEqualTo("value");
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            record(FAST, true);
+        }
+        assertThat(breaker.getState()).isEqualTo(IntrospectionCircuitBreaker.State.OPEN);
+    }
+
+    private void record(long nanos, boolean failure) {
+        breaker.onComplete(breaker.acquirePermission(), nanos, failure ? new IllegalStateException("down") : null);
+    }
+}
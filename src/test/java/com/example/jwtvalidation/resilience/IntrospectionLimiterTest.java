@@ -0,0 +1,193 @@
+package com.example.jwtvalidation.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntrospectionLimiterTest {
+
+    private static final String OPAQUE = "opaque-token";
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    void burstIsAvailableAtOnceThenRejected() {
+        IntrospectionLimiter limiter = limiter(1, 3, 10, "REJECT", 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.call(OPAQUE, null, () -> "ok")).isEqualTo("ok");
+        }
+
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class)
+            .hasMessageContaining("rate limit");
+        assertThat(limiter.snapshot().get("rejectedRate")).isEqualTo(1L);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        IntrospectionLimiter limiter = limiter(100, 1, 10, "REJECT", 0);
+        limiter.call(OPAQUE, null, () -> "ok");
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+
+        clock.advanceMillis(9);
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+
+        clock.advanceMillis(2);
+        assertThat(limiter.call(OPAQUE, null, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void refillNeverExceedsBurst() {
+        IntrospectionLimiter limiter = limiter(1000, 2, 10, "REJECT", 0);
+        clock.advanceMillis(1000);
+
+        limiter.call(OPAQUE, null, () -> "ok");
+        limiter.call(OPAQUE, null, () -> "ok");
+
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+    }
+
+    @Test
+    void queuePolicyWaitsForRefill() {
+        IntrospectionLimiter limiter = limiter(20, 1, 10, "QUEUE", 200);
+        limiter.call(OPAQUE, null, () -> "ok");
+
+        long start = clock.nanoTime();
+        limiter.call(OPAQUE, null, () -> "ok");
+
+        assertThat(clock.nanoTime() - start).isBetween(TimeUnit.MILLISECONDS.toNanos(49), TimeUnit.MILLISECONDS.toNanos(51));
+        assertThat(limiter.snapshot().get("queued")).isEqualTo(1L);
+    }
+
+    @Test
+    void queuePolicyGivesUpAfterMaxWait() {
+        IntrospectionLimiter limiter = limiter(1, 1, 10, "QUEUE", 50);
+        limiter.call(OPAQUE, null, () -> "ok");
+
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+    }
+
+    @Test
+    void interruptedWaitFailsWithoutRunningTheCall() {
+        IntrospectionLimiter limiter = limiter(1, 1, 10, "QUEUE", 5000);
+        limiter.call(OPAQUE, null, () -> "ok");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ran"))
+                .isInstanceOf(IntrospectionUnavailableException.class)
+                .hasMessageContaining("Interrupted");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+        assertThat(limiter.snapshot().get("rejectedRate")).isEqualTo(0L);
+        assertThat(limiter.snapshot().get("permitted")).isEqualTo(1L);
+    }
+
+    @Test
+    void fullBulkheadRejectsAdmissionAndRefundsRate() {
+        IntrospectionLimiter limiter = limiter(1, 5, 1, "REJECT", 0);
+        assertThat(limiter.admit(OPAQUE, null)).isEqualTo(0L);
+
+        assertThatThrownBy(() -> limiter.admit(OPAQUE, null))
+            .isInstanceOf(IntrospectionUnavailableException.class)
+            .hasMessageContaining("concurrent");
+        assertThat(limiter.snapshot().get("availableTokens")).isEqualTo(4L);
+
+        limiter.release();
+        assertThat(limiter.admit(OPAQUE, null)).isEqualTo(0L);
+    }
+
+    @Test
+    void admitReturnsDelayInsteadOfBlocking() {
+        IntrospectionLimiter limiter = limiter(10, 1, 10, "QUEUE", 200);
+        limiter.admit(OPAQUE, null);
+
+        long delay = limiter.admit(OPAQUE, null);
+
+        assertThat(delay).isGreaterThan(0L);
+        assertThat(delay).isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void remoteAddressesHaveSeparateQuotas() {
+        IntrospectionLimiter limiter = new IntrospectionLimiter(true, 1000, 100, 10, "REJECT", 0,
+            "REMOTE_ADDRESS", 1, "", clock);
+        limiter.call(OPAQUE, "10.0.0.1", () -> "ok");
+
+        assertThatThrownBy(() -> limiter.call(OPAQUE, "10.0.0.1", () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class)
+            .hasMessageContaining("quota");
+        assertThat(limiter.call(OPAQUE, "10.0.0.2", () -> "ok")).isEqualTo("ok");
+        // Calls outside a request are only held to the global limits
+        assertThat(limiter.call(OPAQUE, null, () -> "ok")).isEqualTo("ok");
+        assertThat(limiter.snapshot().get("trackedClients")).isEqualTo(2L);
+    }
+
+    @Test
+    void remoteAddressKeyIgnoresTokenClaims() {
+        IntrospectionLimiter limiter = new IntrospectionLimiter(true, 1000, 100, 10, "REJECT", 0,
+            "REMOTE_ADDRESS", 1, "", clock);
+        limiter.call(jwt("a"), "10.0.0.1", () -> "ok");
+
+        assertThatThrownBy(() -> limiter.call(jwt("b"), "10.0.0.1", () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+    }
+
+    @Test
+    void unlistedAzpValuesShareOneBucket() {
+        IntrospectionLimiter limiter = new IntrospectionLimiter(true, 1000, 100, 10, "REJECT", 0,
+            "AZP", 1, "reporting-service=1", clock);
+        limiter.call(jwt("forged-1"), null, () -> "ok");
+
+        assertThatThrownBy(() -> limiter.call(jwt("forged-2"), null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class)
+            .hasMessageContaining("quota");
+        assertThatThrownBy(() -> limiter.call(OPAQUE, null, () -> "ok"))
+            .isInstanceOf(IntrospectionUnavailableException.class);
+        assertThat(limiter.call(jwt("reporting-service"), null, () -> "ok")).isEqualTo("ok");
+        assertThat(limiter.snapshot().get("trackedClients")).isEqualTo(2L);
+    }
+
+    @Test
+    void clientOfReadsAzpOrClientId() {
+        assertThat(IntrospectionLimiter.clientOf(jwt("web-app"))).isEqualTo("web-app");
+        assertThat(IntrospectionLimiter.clientOf(token("{\"client_id\":\"batch\"}"))).isEqualTo("batch");
+        assertThat(IntrospectionLimiter.clientOf(OPAQUE)).isEqualTo("unknown");
+        assertThat(IntrospectionLimiter.clientOf("a.!!!.c")).isEqualTo("unknown");
+    }
+
+    @Test
+    void unlimitedLetsEverythingThrough() {
+        IntrospectionLimiter limiter = IntrospectionLimiter.unlimited();
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.admit(OPAQUE, null)).isEqualTo(0L);
+        }
+        assertThat(limiter.call(OPAQUE, null, () -> "ok")).isEqualTo("ok");
+    }
+
+    private IntrospectionLimiter limiter(double rate, int burst, int maxConcurrent, String policy, long maxWaitMs) {
+        return new IntrospectionLimiter(true, rate, burst, maxConcurrent, policy, maxWaitMs, "REMOTE_ADDRESS", 0, "", clock);
+    }
+
+    private static String jwt(String azp) {
+        return token("{\"azp\":\"" + azp + "\"}");
+    }
+
+    private static String token(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+            + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.jwtvalidation.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when told to. A park returns at once, with the parked time passed.
+ */
+final class ManualClock implements NanoClock {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Override
+    public long nanoTime() {
+        return now.get();
+    }
+
+    @Override
+    public void parkNanos(long nanos) {
+        now.addAndGet(nanos);
+    }
+
+    void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.jwtvalidation.revocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppendedLinesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEachCompleteLineOnce() throws IOException {
+        Path file = directory.resolve("feed.log");
+        AppendedLines lines = new AppendedLines(file);
+        append(file, "one\ntwo\n");
+
+        assertThat(readAll(lines)).containsExactly("one", "two");
+        assertThat(readAll(lines)).isEmpty();
+
+        append(file, "three\n");
+        assertThat(readAll(lines)).containsExactly("three");
+    }
+
+    @Test
+    void leavesHalfWrittenLineForNextRead() throws IOException {
+        Path file = directory.resolve("feed.log");
+        AppendedLines lines = new AppendedLines(file);
+        append(file, "{\"jti\":\"a\"}\n{\"jti\":");
+
+        assertThat(readAll(lines)).containsExactly("{\"jti\":\"a\"}");
+        assertThat(lines.offset()).isEqualTo("{\"jti\":\"a\"}\n".length());
+
+        append(file, "\"b\"}\n");
+        assertThat(readAll(lines)).containsExactly("{\"jti\":\"b\"}");
+    }
+
+    @Test
+    void decodesUtf8AndDropsCarriageReturn() throws IOException {
+        Path file = directory.resolve("feed.log");
+        AppendedLines lines = new AppendedLines(file);
+        append(file, "sub=j\u00fcrgen\r\n");
+
+        assertThat(readAll(lines)).containsExactly("sub=j\u00fcrgen");
+    }
+
+    @Test
+    void keepsMultiByteCharacterSplitAcrossAppends() throws IOException {
+        Path file = directory.resolve("feed.log");
+        AppendedLines lines = new AppendedLines(file);
+        byte[] encoded = "\u00e9\n".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, new byte[] {encoded[0]}, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        assertThat(readAll(lines)).isEmpty();
+
+        Files.write(file, new byte[] {encoded[1], encoded[2]}, StandardOpenOption.APPEND);
+        assertThat(readAll(lines)).containsExactly("\u00e9");
+    }
+
+    @Test
+    void rereadsFromStartWhenFileShrinks() throws IOException {
+        Path file = directory.resolve("feed.log");
+        AppendedLines lines = new AppendedLines(file);
+        append(file, "first line\nsecond line\n");
+        readAll(lines);
+
+        Files.writeString(file, "new\n", StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+        assertThat(readAll(lines)).containsExactly("new");
+    }
+
+    @Test
+    void skipToEndIgnoresEarlierLines() throws IOException {
+        Path file = directory.resolve("feed.log");
+        append(file, "old\n");
+        AppendedLines lines = new AppendedLines(file);
+        lines.skipToEnd();
+        append(file, "new\n");
+
+        assertThat(readAll(lines)).containsExactly("new");
+    }
+
+    @Test
+    void missingFileReadsAsEmpty() throws IOException {
+        assertThat(readAll(new AppendedLines(directory.resolve("absent.log")))).isEmpty();
+    }
+
+    private static List<String> readAll(AppendedLines lines) throws IOException {
+        List<String> read = new ArrayList<>();
+        lines.read(read::add);
+        return read;
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
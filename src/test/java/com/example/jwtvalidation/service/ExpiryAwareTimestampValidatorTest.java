@@ -0,0 +1,58 @@
+package com.example.jwtvalidation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiryAwareTimestampValidatorTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final ExpiryAwareTimestampValidator validator =
+        new ExpiryAwareTimestampValidator(Duration.ofSeconds(60), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void validTokenPasses() {
+        assertThat(validator.validate(jwt(NOW.minusSeconds(60), NOW.plusSeconds(300))).hasErrors()).isFalse();
+    }
+
+    @Test
+    void expiredTokenHasExpiredCode() {
+        OAuth2TokenValidatorResult result = validator.validate(jwt(NOW.minusSeconds(600), NOW.minusSeconds(120)));
+
+        assertThat(result.getErrors()).extracting(OAuth2Error::getErrorCode)
+            .containsExactly(ExpiryAwareTimestampValidator.EXPIRED_TOKEN);
+    }
+
+    @Test
+    void expiryWithinClockSkewPasses() {
+        assertThat(validator.validate(jwt(NOW.minusSeconds(600), NOW.minusSeconds(30))).hasErrors()).isFalse();
+    }
+
+    @Test
+    void notYetValidTokenKeepsInvalidTokenCode() {
+        OAuth2TokenValidatorResult result = validator.validate(jwt(NOW.plusSeconds(120), NOW.plusSeconds(600)));
+
+        assertThat(result.getErrors()).extracting(OAuth2Error::getErrorCode)
+            .containsExactly(OAuth2ErrorCodes.INVALID_TOKEN);
+    }
+
+    private static Jwt jwt(Instant notBefore, Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("alice")
+            .notBefore(notBefore)
+            .issuedAt(notBefore)
+            .expiresAt(expiresAt)
+            .build();
+    }
+}
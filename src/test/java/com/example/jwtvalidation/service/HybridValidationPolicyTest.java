@@ -0,0 +1,46 @@
+package com.example.jwtvalidation.service;
+
+import com.example.jwtvalidation.cache.RejectionReason;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.text.ParseException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HybridValidationPolicyTest {
+
+    @Test
+    void expiryIsClassifiedByErrorCode() {
+        JwtValidationException expired = new JwtValidationException("Jwt expired",
+            List.of(new OAuth2Error(ExpiryAwareTimestampValidator.EXPIRED_TOKEN, "no keyword here", null)));
+
+        assertThat(HybridValidationPolicy.rejectionReason(expired)).isEqualTo(RejectionReason.EXPIRED);
+    }
+
+    @Test
+    void otherClaimErrorIsInvalidClaimsWhateverItsDescription() {
+        JwtValidationException issuer = new JwtValidationException("Bad issuer",
+            List.of(new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "token expired? no, wrong issuer", null)));
+
+        assertThat(HybridValidationPolicy.rejectionReason(issuer)).isEqualTo(RejectionReason.INVALID_CLAIMS);
+    }
+
+    @Test
+    void parseFailureIsMalformed() {
+        BadJwtException malformed = new BadJwtException("Unparseable", new ParseException("Invalid serialization", 0));
+
+        assertThat(HybridValidationPolicy.rejectionReason(malformed)).isEqualTo(RejectionReason.MALFORMED);
+    }
+
+    @Test
+    void messageAloneDoesNotMakeMalformed() {
+        BadJwtException signature = new BadJwtException("Malformed signature? No, it just did not verify");
+
+        assertThat(HybridValidationPolicy.rejectionReason(signature)).isEqualTo(RejectionReason.BAD_SIGNATURE);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.jwtvalidation.transport;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedTransportInterceptorTest {
+
+    private final IntrospectionTransportMetrics metrics = new IntrospectionTransportMetrics();
+    private final BoundedTransportInterceptor interceptor = new BoundedTransportInterceptor(metrics, 1, 10);
+    private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://idp/introspect"));
+
+    @Test
+    void slotIsHeldUntilResponseIsClosed() throws Exception {
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], respond(HttpStatus.OK));
+
+        assertThat(metrics.getInFlight()).isEqualTo(1);
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], respond(HttpStatus.OK)))
+            .isInstanceOf(IOException.class);
+        assertThat(metrics.getSaturated()).isEqualTo(1);
+
+        response.getBody().readAllBytes();
+        response.close();
+
+        assertThat(metrics.getInFlight()).isZero();
+        interceptor.intercept(request, new byte[0], respond(HttpStatus.OK)).close();
+        assertThat(metrics.getRequests()).isEqualTo(2);
+        assertThat(metrics.getFailures()).isZero();
+    }
+
+    @Test
+    void closingTwiceReleasesOnce() throws Exception {
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], respond(HttpStatus.OK));
+        response.close();
+        response.close();
+
+        ClientHttpResponse next = interceptor.intercept(request, new byte[0], respond(HttpStatus.OK));
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], respond(HttpStatus.OK)))
+            .isInstanceOf(IOException.class);
+        next.close();
+    }
+
+    @Test
+    void errorStatusIsCountedOnClose() throws Exception {
+        interceptor.intercept(request, new byte[0], respond(HttpStatus.SERVICE_UNAVAILABLE)).close();
+
+        assertThat(metrics.getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void failedExecutionReleasesSlot() throws Exception {
+        ClientHttpRequestExecution failing = (req, body) -> {
+            throw new IOException("connection refused");
+        };
+
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], failing)).isInstanceOf(IOException.class);
+
+        assertThat(metrics.getInFlight()).isZero();
+        assertThat(metrics.getFailures()).isEqualTo(1);
+        interceptor.intercept(request, new byte[0], respond(HttpStatus.OK)).close();
+    }
+
+    private static ClientHttpRequestExecution respond(HttpStatus status) {
+        return (req, body) -> new MockClientHttpResponse("{\"active\":true}".getBytes(), status);
+    }
+}